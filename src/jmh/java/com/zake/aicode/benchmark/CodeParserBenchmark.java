@@ -0,0 +1,84 @@
+package com.zake.aicode.benchmark;
+
+import com.zake.aicode.ai.model.HtmlCodeResult;
+import com.zake.aicode.ai.model.MultiFileCodeResult;
+import com.zake.aicode.core.parser.CodeBlockHandler;
+import com.zake.aicode.core.parser.HtmlCodeParser;
+import com.zake.aicode.core.parser.MultiFileCodeParser;
+import com.zake.aicode.core.parser.StreamingCodeParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 代码解析器基准：完整响应的正则解析 vs 流式状态机解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeParserBenchmark {
+
+    @Param({"50", "500"})
+    private int sizeKb;
+
+    private final HtmlCodeParser htmlCodeParser = new HtmlCodeParser();
+
+    private final MultiFileCodeParser multiFileCodeParser = new MultiFileCodeParser();
+
+    private String htmlTranscript;
+
+    private String multiFileTranscript;
+
+    private List<String> multiFileChunks;
+
+    @Setup
+    public void setup() {
+        htmlTranscript = TranscriptFixtures.html(sizeKb);
+        multiFileTranscript = TranscriptFixtures.multiFile(sizeKb);
+        multiFileChunks = TranscriptFixtures.chunks(multiFileTranscript);
+    }
+
+    @Benchmark
+    public HtmlCodeResult htmlCodeParser() {
+        return htmlCodeParser.parseCode(htmlTranscript);
+    }
+
+    @Benchmark
+    public MultiFileCodeResult multiFileCodeParser() {
+        return multiFileCodeParser.parseCode(multiFileTranscript);
+    }
+
+    @Benchmark
+    public void streamingCodeParser(Blackhole blackhole) {
+        StreamingCodeParser parser = new StreamingCodeParser(new CodeBlockHandler() {
+            @Override
+            public void onText(CharSequence text) {
+                blackhole.consume(text.length());
+            }
+
+            @Override
+            public void onBlockStart(String language) {
+                blackhole.consume(language);
+            }
+
+            @Override
+            public void onBlockContent(CharSequence content) {
+                blackhole.consume(content.length());
+            }
+
+            @Override
+            public void onBlockEnd() {
+                blackhole.consume(true);
+            }
+        });
+        for (String chunk : multiFileChunks) {
+            parser.append(chunk);
+        }
+        parser.finish();
+    }
+}
@@ -0,0 +1,58 @@
+package com.zake.aicode.benchmark;
+
+import com.zake.aicode.ai.guardrail.PromptSafetyInputGuardrail;
+import com.zake.aicode.model.dto.app.AppQueryRequest;
+import com.zake.aicode.utils.CacheKeyUtils;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.guardrail.InputGuardrailResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求入口基准：输入护轨校验、缓存 key 生成
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPathBenchmark {
+
+    private final PromptSafetyInputGuardrail guardrail = new PromptSafetyInputGuardrail();
+
+    private UserMessage shortPrompt;
+
+    private UserMessage longPrompt;
+
+    private AppQueryRequest appQueryRequest;
+
+    @Setup
+    public void setup() {
+        shortPrompt = UserMessage.from("做一个个人博客首页，包含文章列表和关于我页面");
+        // 接近输入上限的长提示词
+        longPrompt = UserMessage.from("帮我做一个电商网站，需要商品列表、购物车、订单页面和用户中心。".repeat(30));
+        appQueryRequest = new AppQueryRequest();
+        appQueryRequest.setAppName("博客");
+        appQueryRequest.setCodeGenType("html");
+        appQueryRequest.setPriority(99);
+        appQueryRequest.setPageNum(1);
+        appQueryRequest.setPageSize(20);
+    }
+
+    @Benchmark
+    public InputGuardrailResult guardrailShortPrompt() {
+        return guardrail.validate(shortPrompt);
+    }
+
+    @Benchmark
+    public InputGuardrailResult guardrailLongPrompt() {
+        return guardrail.validate(longPrompt);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return CacheKeyUtils.generateKey(appQueryRequest);
+    }
+}
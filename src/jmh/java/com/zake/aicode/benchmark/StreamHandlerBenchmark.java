@@ -0,0 +1,89 @@
+package com.zake.aicode.benchmark;
+
+import cn.hutool.core.util.ReflectUtil;
+import com.zake.aicode.ai.model.message.AiResponseMessage;
+import com.zake.aicode.ai.model.message.StreamMessage;
+import com.zake.aicode.ai.tools.BaseTool;
+import com.zake.aicode.ai.tools.FileWriteTool;
+import com.zake.aicode.ai.tools.ToolManager;
+import com.zake.aicode.core.handler.JsonMessageStreamHandler;
+import com.zake.aicode.core.handler.SimpleTextStreamHandler;
+import com.zake.aicode.core.session.GenerationSession;
+import com.zake.aicode.model.entity.User;
+import com.zake.aicode.service.ChatHistoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流处理链路基准：消息重组（Vue 工具调用 / 纯文本）和 SSE 事件包装
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamHandlerBenchmark {
+
+    @Param({"50", "500"})
+    private int sizeKb;
+
+    private final JsonMessageStreamHandler jsonMessageStreamHandler = new JsonMessageStreamHandler();
+
+    private final SimpleTextStreamHandler simpleTextStreamHandler = new SimpleTextStreamHandler();
+
+    /**
+     * 对话历史写入不在测量范围内，使用空实现
+     */
+    private final ChatHistoryService chatHistoryService = (ChatHistoryService) Proxy.newProxyInstance(
+            ChatHistoryService.class.getClassLoader(), new Class<?>[]{ChatHistoryService.class},
+            (proxy, method, args) -> null);
+
+    private final User loginUser = new User();
+
+    private List<StreamMessage> vueMessages;
+
+    private List<StreamMessage> htmlMessages;
+
+    private List<String> htmlChunks;
+
+    @Setup
+    public void setup() {
+        ToolManager toolManager = new ToolManager();
+        ReflectUtil.setFieldValue(toolManager, "tools", new BaseTool[]{new FileWriteTool()});
+        toolManager.initTools();
+        ReflectUtil.setFieldValue(jsonMessageStreamHandler, "toolManager", toolManager);
+        loginUser.setId(1L);
+        vueMessages = TranscriptFixtures.vueMessages(sizeKb);
+        htmlChunks = TranscriptFixtures.chunks(TranscriptFixtures.html(sizeKb));
+        htmlMessages = htmlChunks.stream().<StreamMessage>map(AiResponseMessage::new).toList();
+    }
+
+    @Benchmark
+    public String jsonMessageStreamHandler() {
+        return jsonMessageStreamHandler.handle(Flux.fromIterable(vueMessages), chatHistoryService, 1L, loginUser)
+                .blockLast();
+    }
+
+    @Benchmark
+    public String simpleTextStreamHandler() {
+        return simpleTextStreamHandler.handle(Flux.fromIterable(htmlMessages), chatHistoryService, 1L, loginUser)
+                .blockLast();
+    }
+
+    /**
+     * 生成会话：每个片段包装为 {"d": chunk} 并编号，经回放缓冲区下发
+     */
+    @Benchmark
+    public ServerSentEvent<String> sseWrapping() {
+        GenerationSession session = new GenerationSession(1L, 1L, 1024);
+        session.start(Flux.fromIterable(htmlChunks), () -> {
+        });
+        return session.attach(0).blockLast();
+    }
+}
@@ -0,0 +1,133 @@
+package com.zake.aicode.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONUtil;
+import com.zake.aicode.ai.model.message.AiResponseMessage;
+import com.zake.aicode.ai.model.message.StreamMessage;
+import com.zake.aicode.ai.model.message.ToolExecutedMessage;
+import com.zake.aicode.ai.model.message.ToolRequestMessage;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecution;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测用的 LLM 输出样本
+ * 默认按目标大小生成与真实输出结构一致的样本（说明文字 + 代码块 / 工具调用）；
+ * 指定 -Djmh.transcript.dir 时优先读取该目录下录制的真实输出（html.txt、multi_file.txt）。
+ */
+public final class TranscriptFixtures {
+
+    /**
+     * 模型每个 token 大约的字符数，用于把完整输出切成流式片段
+     */
+    private static final int CHUNK_CHARS = 4;
+
+    private TranscriptFixtures() {
+    }
+
+    /**
+     * HTML 单文件模式的完整输出
+     */
+    public static String html(int sizeKb) {
+        String recorded = loadRecorded("html.txt");
+        if (recorded != null) {
+            return recorded;
+        }
+        return "好的，下面是为你生成的页面。\n\n```html\n" + markup(sizeKb * 1024) + "```\n\n页面包含导航、内容区和页脚。";
+    }
+
+    /**
+     * 多文件模式的完整输出
+     */
+    public static String multiFile(int sizeKb) {
+        String recorded = loadRecorded("multi_file.txt");
+        if (recorded != null) {
+            return recorded;
+        }
+        int part = sizeKb * 1024 / 3;
+        return "好的，下面是项目的三个文件。\n\n```html\n" + markup(part) + "```\n\n```css\n" + css(part)
+                + "```\n\n```javascript\n" + script(part) + "```\n\n以上是全部代码。";
+    }
+
+    /**
+     * 按 token 大小切分的流式片段
+     */
+    public static List<String> chunks(String transcript) {
+        List<String> chunks = new ArrayList<>(transcript.length() / CHUNK_CHARS + 1);
+        for (int i = 0; i < transcript.length(); i += CHUNK_CHARS) {
+            chunks.add(transcript.substring(i, Math.min(transcript.length(), i + CHUNK_CHARS)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Vue 项目模式的消息流：说明文字、writeFile 工具调用片段、工具执行结果
+     */
+    public static List<StreamMessage> vueMessages(int sizeKb) {
+        List<StreamMessage> messages = new ArrayList<>();
+        chunks("我将创建一个 Vue 项目，先写入入口文件和组件。\n").forEach(chunk -> messages.add(new AiResponseMessage(chunk)));
+        int fileCount = Math.max(1, sizeKb / 10);
+        int fileSize = sizeKb * 1024 / fileCount;
+        for (int i = 0; i < fileCount; i++) {
+            String id = "call_" + i;
+            String arguments = JSONUtil.toJsonStr(Map.of(
+                    "relativeFilePath", "src/components/Component" + i + ".vue",
+                    "content", "<template>\n" + markup(fileSize) + "</template>\n"));
+            // 工具参数同样是流式到达的
+            for (String chunk : chunks(arguments)) {
+                messages.add(new ToolRequestMessage(ToolExecutionRequest.builder()
+                        .id(id).name("writeFile").arguments(chunk).build()));
+            }
+            ToolExecutionRequest request = ToolExecutionRequest.builder()
+                    .id(id).name("writeFile").arguments(arguments).build();
+            messages.add(new ToolExecutedMessage(ToolExecution.builder()
+                    .request(request).result("文件写入成功").build()));
+        }
+        chunks("项目文件已全部写入。").forEach(chunk -> messages.add(new AiResponseMessage(chunk)));
+        return messages;
+    }
+
+    private static String markup(int size) {
+        StringBuilder sb = new StringBuilder(size + 128);
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("  <section class=\"card card-").append(i % 7).append("\">\n")
+                    .append("    <h2>标题 ").append(i).append("</h2>\n")
+                    .append("    <p>这里是第 ").append(i).append(" 段介绍文字，包含 `代码` 和一些说明。</p>\n")
+                    .append("  </section>\n");
+        }
+        return sb.toString();
+    }
+
+    private static String css(int size) {
+        StringBuilder sb = new StringBuilder(size + 64);
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append(".card-").append(i).append(" { margin: ").append(i % 16)
+                    .append("px; color: #333; transition: all .3s ease; }\n");
+        }
+        return sb.toString();
+    }
+
+    private static String script(int size) {
+        StringBuilder sb = new StringBuilder(size + 96);
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("document.querySelectorAll('.card-").append(i)
+                    .append("').forEach(el => el.addEventListener('click', () => console.log(`card ")
+                    .append(i).append("`)));\n");
+        }
+        return sb.toString();
+    }
+
+    private static String loadRecorded(String fileName) {
+        String dir = System.getProperty("jmh.transcript.dir");
+        if (dir == null) {
+            return null;
+        }
+        File file = new File(dir, fileName);
+        return file.isFile() ? FileUtil.readString(file, StandardCharsets.UTF_8) : null;
+    }
+}
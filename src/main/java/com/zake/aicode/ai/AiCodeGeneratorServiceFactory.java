@@ -55,6 +55,23 @@ public class AiCodeGeneratorServiceFactory {
     @Resource
     private ToolManager toolManager;
 
+    /**
+     * 对话记忆窗口大小
+     */
+    private static final int MAX_MEMORY_MESSAGES = 20;
+
+    /**
+     * 输入护轨无状态，所有实例共享
+     */
+    private final PromptSafetyInputGuardrail promptSafetyInputGuardrail = new PromptSafetyInputGuardrail();
+
+    /**
+     * 共享的流式模型，首次使用时从容器获取
+     */
+    private volatile StreamingChatModel streamingChatModel;
+
+    private volatile StreamingChatModel reasoningStreamingChatModel;
+
     /**
      * 默认提供一个 Bean
      * 满足之前测试用例
@@ -123,6 +140,7 @@ public class AiCodeGeneratorServiceFactory {
 
     /**
      * 创建新的 AI 服务实例
+     * 模型、工具、护轨在所有实例间共享，每个实例只持有自己的对话记忆
      */
     private AiCodeGeneratorService createAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType) {
         // 根据 appId 构建独立的对话记忆
@@ -130,61 +148,87 @@ public class AiCodeGeneratorServiceFactory {
                 .builder()
                 .id(appId)
                 .chatMemoryStore(redisChatMemoryStore)
-                .maxMessages(20)
+                .maxMessages(MAX_MEMORY_MESSAGES)
                 .build();
-        // 从数据库加载历史对话到记忆中
-        chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, 20);
+        warmUpChatMemory(appId, chatMemory);
         // 根据代码生成类型选择不同的模型配置
         return switch (codeGenType) {
             // Vue 项目生成使用推理模型
-            case VUE_PROJECT -> {
-                //使用多利模式的bean解决并发问题
-                StreamingChatModel reasoningStreamingChatModel =
-                        SpringContextUtil.getBean("reasoningStreamingChatModelPrototype"
-                                , StreamingChatModel.class);
-
-                yield AiServices.builder(AiCodeGeneratorService.class)
-                        .streamingChatModel(reasoningStreamingChatModel)
-                        .chatMemoryProvider(memoryId -> chatMemory)
-                        // 添加工具
-                        .tools(
-//                            new FileWriteTool(),
-//                            new FileReadTool(),
-//                            new FileModifyTool(),
-//                            new FileDirReadTool(),
-//                            new FileDeleteTool()
-                                toolManager.getAllTools()
-                        )
-                        .maxSequentialToolsInvocations(20)  // 最多连续调用 20 次工具
-
-                        // ai调用没有的工具 处理
-                        .hallucinatedToolNameStrategy(toolExecutionRequest -> ToolExecutionResultMessage.from(
-                                toolExecutionRequest, "Error: there is no tool called "
-                                        + toolExecutionRequest.name()
-                        ))
-                        .inputGuardrails(new PromptSafetyInputGuardrail())  // 添加输入护轨
-//                        .outputGuardrails(new RetryOutputGuardrail()) // 添加输出护轨 可能会导致流式⁢输出的响应不及时
-                        .build();
-            }
+            case VUE_PROJECT -> AiServices.builder(AiCodeGeneratorService.class)
+                    .streamingChatModel(getReasoningStreamingChatModel())
+                    .chatMemoryProvider(memoryId -> chatMemory)
+                    // 添加工具
+                    .tools(toolManager.getAllTools())
+                    .maxSequentialToolsInvocations(20)  // 最多连续调用 20 次工具
+                    // ai调用没有的工具 处理
+                    .hallucinatedToolNameStrategy(toolExecutionRequest -> ToolExecutionResultMessage.from(
+                            toolExecutionRequest, "Error: there is no tool called "
+                                    + toolExecutionRequest.name()
+                    ))
+                    .inputGuardrails(promptSafetyInputGuardrail)  // 添加输入护轨
+//                    .outputGuardrails(new RetryOutputGuardrail()) // 添加输出护轨 可能会导致流式⁢输出的响应不及时
+                    .build();
             // HTML 和多文件生成使用默认模型
-            case HTML, MULTI_FILE -> {
-                //使用多利模式的bean解决并发问题
-                StreamingChatModel openAiStreamingChatModel =
-                        SpringContextUtil.getBean("streamingChatModelPrototype", StreamingChatModel.class);
-
-                yield AiServices.builder(AiCodeGeneratorService.class)
-                        .chatModel(chatModel)
-                        .streamingChatModel(openAiStreamingChatModel)
-                        .chatMemory(chatMemory)
-                        .inputGuardrails(new PromptSafetyInputGuardrail())  // 添加输入护轨
-//                        .outputGuardrails(new RetryOutputGuardrail())// 添加输出护轨。可能会导致流式⁢输出的响应不及时
-                        .build();
-            }
+            case HTML, MULTI_FILE -> AiServices.builder(AiCodeGeneratorService.class)
+                    .chatModel(chatModel)
+                    .streamingChatModel(getStreamingChatModel())
+                    .chatMemory(chatMemory)
+                    .inputGuardrails(promptSafetyInputGuardrail)  // 添加输入护轨
+//                    .outputGuardrails(new RetryOutputGuardrail())// 添加输出护轨。可能会导致流式⁢输出的响应不及时
+                    .build();
             default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR,
                     "不支持的代码生成类型: " + codeGenType.getValue());
         };
     }
 
+    /**
+     * 预热对话记忆
+     * Redis 中已有对话窗口（其他节点写入，或本地缓存过期但 Redis 未过期）时直接复用，
+     * 只有 Redis 中没有时才从数据库加载，省去一次查询和整窗重写
+     */
+    private void warmUpChatMemory(long appId, MessageWindowChatMemory chatMemory) {
+        if (!redisChatMemoryStore.getMessages(appId).isEmpty()) {
+            log.info("appId: {} 的对话记忆在 Redis 中已存在，跳过数据库加载", appId);
+            return;
+        }
+        // 从数据库加载历史对话到记忆中
+        chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, MAX_MEMORY_MESSAGES);
+    }
+
+    /**
+     * 共享的流式模型（模型本身无请求级状态，每次请求各自创建响应构建器）
+     */
+    private StreamingChatModel getStreamingChatModel() {
+        StreamingChatModel model = streamingChatModel;
+        if (model == null) {
+            synchronized (this) {
+                if (streamingChatModel == null) {
+                    streamingChatModel = SpringContextUtil.getBean("streamingChatModelPrototype",
+                            StreamingChatModel.class);
+                }
+                model = streamingChatModel;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * 共享的推理流式模型
+     */
+    private StreamingChatModel getReasoningStreamingChatModel() {
+        StreamingChatModel model = reasoningStreamingChatModel;
+        if (model == null) {
+            synchronized (this) {
+                if (reasoningStreamingChatModel == null) {
+                    reasoningStreamingChatModel = SpringContextUtil.getBean("reasoningStreamingChatModelPrototype",
+                            StreamingChatModel.class);
+                }
+                model = reasoningStreamingChatModel;
+            }
+        }
+        return model;
+    }
+
 //
 //    /**
 //     * 创建新的 AI 服务实例(添加本地缓存)
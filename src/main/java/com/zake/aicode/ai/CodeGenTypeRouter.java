@@ -0,0 +1,215 @@
+package com.zake.aicode.ai;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 代码生成类型路由器
+ * 依次尝试：
+ * 1. 关键词预路由：提示词明确指定了技术方案或属于典型场景时直接返回，不调用模型
+ * 2. 路由结果缓存：按规范化提示词的指纹缓存模型的判断结果
+ * 3. 复用同一个 AI 路由服务实例调用模型
+ */
+@Slf4j
+@Component
+public class CodeGenTypeRouter {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 明确指定技术方案的关键词，命中即可确定类型
+     */
+    private static final Map<CodeGenTypeEnum, List<String>> EXPLICIT_KEYWORDS = new EnumMap<>(Map.of(
+            CodeGenTypeEnum.VUE_PROJECT, List.of("vue", "工程化项目"),
+            CodeGenTypeEnum.MULTI_FILE, List.of("多文件", "html、css、js 分离", "html css js 分离", "css 和 js 分离",
+                    "分离 html", "分离html", "单独的 css", "单独的css"),
+            CodeGenTypeEnum.HTML, List.of("单个 html", "单个html", "一个 html 文件", "一个html文件", "单文件",
+                    "单 html", "纯 html 页面")
+    ));
+
+    /**
+     * 否定词，出现在明确关键词前面时（如“不要用 vue”）不能按关键词路由
+     */
+    private static final List<String> NEGATION_WORDS = List.of(
+            "不要", "不用", "不需要", "别用", "不使用", "无需", "不想", "don't", "dont", "without", "no ", "not "
+    );
+
+    /**
+     * 否定词与关键词之间最多间隔的字符数
+     */
+    private static final int NEGATION_WINDOW = 6;
+
+    /**
+     * 复杂项目的典型场景，命中两个及以上才认为是高置信度
+     */
+    private static final List<String> COMPLEX_KEYWORDS = List.of(
+            "管理系统", "后台管理", "管理后台", "电商", "商城", "购物车", "仪表盘", "dashboard",
+            "增删改查", "crud", "登录注册", "用户登录", "权限管理", "数据管理", "订单"
+    );
+
+    /**
+     * 简单展示页的典型场景，没有复杂场景关键词时命中一个即可
+     */
+    private static final List<String> SIMPLE_KEYWORDS = List.of(
+            "落地页", "着陆页", "landing page", "宣传页", "活动页", "倒计时", "个人名片", "简历页"
+    );
+
+    @Resource
+    private AiCodeGenTypeRoutingService aiCodeGenTypeRoutingService;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 路由结果缓存
+     * - 最多缓存 10000 个提示词
+     * - 写入后 1 天过期（提示词模板调整后自然失效）
+     */
+    private final Cache<String, CodeGenTypeEnum> routingCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private Counter keywordCounter;
+
+    private Counter cacheCounter;
+
+    private Counter modelCounter;
+
+    @PostConstruct
+    public void initMetrics() {
+        keywordCounter = routingCounter("keyword");
+        cacheCounter = routingCounter("cache");
+        modelCounter = routingCounter("model");
+    }
+
+    /**
+     * 根据用户需求选择代码生成类型
+     *
+     * @param userPrompt 用户输入的需求描述
+     * @return 代码生成类型
+     */
+    public CodeGenTypeEnum route(String userPrompt) {
+        String normalized = normalize(userPrompt);
+        CodeGenTypeEnum preRouted = preRoute(normalized);
+        if (preRouted != null) {
+            keywordCounter.increment();
+            log.info("关键词预路由完成，选择类型: {}", preRouted.getValue());
+            return preRouted;
+        }
+        String fingerprint = DigestUtil.sha256Hex(normalized);
+        CodeGenTypeEnum cached = routingCache.getIfPresent(fingerprint);
+        if (cached != null) {
+            cacheCounter.increment();
+            return cached;
+        }
+        // 不在缓存的加载函数中调用模型，避免模型调用期间阻塞同一 key 的其他线程和缓存维护
+        CodeGenTypeEnum routed = aiCodeGenTypeRoutingService.routeCodeGenType(userPrompt);
+        modelCounter.increment();
+        if (routed != null) {
+            routingCache.put(fingerprint, routed);
+        }
+        return routed;
+    }
+
+    /**
+     * 规范化提示词：Unicode 兼容规范化、转小写、合并空白
+     */
+    static String normalize(String userPrompt) {
+        String normalized = Normalizer.normalize(userPrompt == null ? "" : userPrompt, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * 关键词预路由，只处理高置信度的情况，其余返回 null 交给模型判断
+     *
+     * @param normalized 规范化后的提示词
+     */
+    static CodeGenTypeEnum preRoute(String normalized) {
+        CodeGenTypeEnum explicit = null;
+        for (Map.Entry<CodeGenTypeEnum, List<String>> entry : EXPLICIT_KEYWORDS.entrySet()) {
+            if (isNegated(normalized, entry.getValue())) {
+                // 否定了某种方案，关键词不代表用户的选择，交给模型判断
+                return null;
+            }
+            if (containsAny(normalized, entry.getValue())) {
+                if (explicit != null) {
+                    // 同时指定了多种方案，交给模型判断
+                    return null;
+                }
+                explicit = entry.getKey();
+            }
+        }
+        if (explicit != null) {
+            return explicit;
+        }
+        int complexHits = countHits(normalized, COMPLEX_KEYWORDS);
+        int simpleHits = countHits(normalized, SIMPLE_KEYWORDS);
+        if (complexHits >= 2 && simpleHits == 0) {
+            return CodeGenTypeEnum.VUE_PROJECT;
+        }
+        if (simpleHits >= 1 && complexHits == 0) {
+            return CodeGenTypeEnum.HTML;
+        }
+        return null;
+    }
+
+    private static boolean containsAny(String text, List<String> keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 关键词的某次出现前面紧挨着否定词
+     */
+    private static boolean isNegated(String text, List<String> keywords) {
+        for (String keyword : keywords) {
+            for (int index = text.indexOf(keyword); index >= 0; index = text.indexOf(keyword, index + 1)) {
+                for (String negation : NEGATION_WORDS) {
+                    int at = text.lastIndexOf(negation, index - negation.length());
+                    if (at >= 0 && index - (at + negation.length()) <= NEGATION_WINDOW) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int countHits(String text, List<String> keywords) {
+        int hits = 0;
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private Counter routingCounter(String source) {
+        return Counter.builder("code_gen_type_routing_total")
+                .description("代码生成类型路由次数（按决策来源）")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
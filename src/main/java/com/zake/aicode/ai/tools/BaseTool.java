@@ -8,6 +8,12 @@ import cn.hutool.json.JSONObject;
  */
 public abstract class BaseTool {
 
+    /**
+     * 文件工具中表示目标文件的参数名（即工具方法的参数名）
+     * 同一轮的多个工具调用按该参数分组并行执行，修改参数名时需同步修改此处
+     */
+    public static final String FILE_PATH_ARGUMENT = "relativeFilePath";
+
     /**
      * 获取工具的英文名称（对应方法名）
      *
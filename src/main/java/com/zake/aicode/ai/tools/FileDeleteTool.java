@@ -2,6 +2,7 @@ package com.zake.aicode.ai.tools;
 
 import cn.hutool.json.JSONObject;
 import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.core.archive.ProjectArchiveCache;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
@@ -45,6 +46,7 @@ public class FileDeleteTool extends BaseTool {
             }
             Files.delete(path);
             log.info("成功删除文件: {}", path.toAbsolutePath());
+            ProjectArchiveCache.invalidate(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, "vue_project_" + appId));
             return "文件删除成功: " + relativeFilePath;
         } catch (IOException e) {
             String errorMessage = "删除文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
@@ -83,7 +85,7 @@ public class FileDeleteTool extends BaseTool {
 
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
-        String relativeFilePath = arguments.getStr("relativeFilePath");
+        String relativeFilePath = arguments.getStr(FILE_PATH_ARGUMENT);
         return String.format("[工具调用] %s %s", getDisplayName(), relativeFilePath);
     }
 }
\ No newline at end of file
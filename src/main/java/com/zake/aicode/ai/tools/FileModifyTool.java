@@ -2,6 +2,7 @@ package com.zake.aicode.ai.tools;
 
 import cn.hutool.json.JSONObject;
 import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.core.archive.ProjectArchiveCache;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
@@ -35,7 +36,7 @@ public class FileModifyTool extends BaseTool {
 
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
-        String relativeFilePath = arguments.getStr("relativeFilePath");
+        String relativeFilePath = arguments.getStr(FILE_PATH_ARGUMENT);
         String oldContent = arguments.getStr("oldContent");
         String newContent = arguments.getStr("newContent");
         // 显示对比内容
@@ -83,6 +84,7 @@ public class FileModifyTool extends BaseTool {
             }
             Files.writeString(path, modifiedContent, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
             log.info("成功修改文件: {}", path.toAbsolutePath());
+            ProjectArchiveCache.invalidate(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, "vue_project_" + appId));
             return "文件修改成功: " + relativeFilePath;
         } catch (IOException e) {
             String errorMessage = "修改文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
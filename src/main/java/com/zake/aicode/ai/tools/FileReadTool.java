@@ -35,7 +35,7 @@ public class FileReadTool extends BaseTool {
 
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
-        String relativeFilePath = arguments.getStr("relativeFilePath");
+        String relativeFilePath = arguments.getStr(FILE_PATH_ARGUMENT);
         return String.format("[工具调用] %s %s", getDisplayName(), relativeFilePath);
     }
     @Tool("读取指定路径的文件内容")
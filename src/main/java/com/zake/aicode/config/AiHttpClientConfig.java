@@ -0,0 +1,144 @@
+package com.zake.aicode.config;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.spring.restclient.SpringRestClient;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AI 模型共享 HTTP 客户端配置
+ * 多例模型共用同一个 HTTP 客户端（同一个连接池），避免每个模型实例各自建连、各自 TLS 握手，
+ * 对话隔离仍然在对话记忆层面完成。
+ * 底层固定为 JDK HttpClient（不走 Spring 的自动探测，classpath 上有 Apache HttpClient 时也不会切换），
+ * 优先协商 HTTP/2（服务端不支持时回退到 HTTP/1.1），HTTP/2 下并发请求复用同一连接，
+ * HTTP/1.1 下 JDK 连接池默认不限制每个目标地址的连接数，不会成为并发生成的瓶颈。
+ */
+@Slf4j
+@Configuration
+@ConfigurationProperties(prefix = "langchain4j.http-client")
+@Data
+public class AiHttpClientConfig {
+
+    /**
+     * 连接超时（秒）
+     */
+    private long connectTimeoutSeconds = 15;
+
+    /**
+     * 读取超时（秒），等待响应头的最长时间
+     */
+    private long readTimeoutSeconds = 60;
+
+    /**
+     * 共享 HTTP 客户端构建器，通过 httpClientBuilder 注入到各个模型
+     */
+    @Bean
+    public HttpClientBuilder sharedAiHttpClientBuilder() {
+        // 连接管理、流式响应读取都使用虚拟线程
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        java.net.http.HttpClient jdkClient = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .executor(executor)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(jdkClient, executor);
+        requestFactory.setReadTimeout(Duration.ofSeconds(readTimeoutSeconds));
+        HttpClient sharedClient = SpringRestClient.builder()
+                .restClientBuilder(pinnedRequestFactory(RestClient.builder(), requestFactory))
+                .streamingRequestExecutor(new TaskExecutorAdapter(executor))
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .readTimeout(Duration.ofSeconds(readTimeoutSeconds))
+                .build();
+        return new SharedHttpClientBuilder(sharedClient,
+                Duration.ofSeconds(connectTimeoutSeconds), Duration.ofSeconds(readTimeoutSeconds));
+    }
+
+    /**
+     * 固定使用指定的请求工厂：SpringRestClient 会按 classpath 自动探测并覆盖构建器上的请求工厂，
+     * 这里忽略之后的 requestFactory 调用，保证底层始终是上面配置的 JDK HttpClient
+     */
+    private static RestClient.Builder pinnedRequestFactory(RestClient.Builder delegate,
+                                                           ClientHttpRequestFactory requestFactory) {
+        delegate.requestFactory(requestFactory);
+        return (RestClient.Builder) Proxy.newProxyInstance(RestClient.Builder.class.getClassLoader(),
+                new Class<?>[]{RestClient.Builder.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("requestFactory")) {
+                        return proxy;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result == delegate ? proxy : result;
+                });
+    }
+
+    /**
+     * 总是返回同一个客户端的构建器
+     * 超时由本配置统一管理：模型配置了不同的超时时无法生效，记录警告后忽略
+     */
+    private static class SharedHttpClientBuilder implements HttpClientBuilder {
+
+        private final HttpClient sharedClient;
+
+        private final Duration connectTimeout;
+
+        private final Duration readTimeout;
+
+        private SharedHttpClientBuilder(HttpClient sharedClient, Duration connectTimeout, Duration readTimeout) {
+            this.sharedClient = sharedClient;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        public Duration connectTimeout() {
+            return connectTimeout;
+        }
+
+        @Override
+        public HttpClientBuilder connectTimeout(Duration timeout) {
+            warnIfOverridden("connectTimeout", timeout, connectTimeout);
+            return this;
+        }
+
+        @Override
+        public Duration readTimeout() {
+            return readTimeout;
+        }
+
+        @Override
+        public HttpClientBuilder readTimeout(Duration timeout) {
+            warnIfOverridden("readTimeout", timeout, readTimeout);
+            return this;
+        }
+
+        @Override
+        public HttpClient build() {
+            return sharedClient;
+        }
+
+        private static void warnIfOverridden(String name, Duration requested, Duration configured) {
+            if (requested != null && !requested.equals(configured)) {
+                log.warn("模型配置的 {}={} 不生效，共享 HTTP 客户端统一使用 {}（langchain4j.http-client）",
+                        name, requested, configured);
+            }
+        }
+    }
+}
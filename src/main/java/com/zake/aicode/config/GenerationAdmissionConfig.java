@@ -0,0 +1,79 @@
+package com.zake.aicode.config;
+
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 代码生成并发准入配置
+ * 每个模型提供方一个并发容量（按权重计），不同代码生成类型占用不同的权重
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code.admission")
+@Data
+public class GenerationAdmissionConfig {
+
+    /**
+     * 默认模型提供方
+     */
+    private static final String DEFAULT_PROVIDER = "streaming";
+
+    /**
+     * 是否开启准入控制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个提供方排队的最大请求数，超出直接拒绝
+     */
+    private int maxQueueSize = 200;
+
+    /**
+     * 提供方 -> 并发容量（权重之和）
+     */
+    private Map<String, Integer> providers = new HashMap<>(Map.of(
+            "streaming", 8,
+            "reasoning", 4
+    ));
+
+    /**
+     * 代码生成类型 -> 使用的提供方，key 为 CodeGenTypeEnum 的 value
+     */
+    private Map<String, String> typeProviders = new HashMap<>(Map.of(
+            CodeGenTypeEnum.HTML.getValue(), "streaming",
+            CodeGenTypeEnum.MULTI_FILE.getValue(), "streaming",
+            CodeGenTypeEnum.VUE_PROJECT.getValue(), "reasoning"
+    ));
+
+    /**
+     * 代码生成类型 -> 权重，key 为 CodeGenTypeEnum 的 value，未配置时为 1
+     */
+    private Map<String, Integer> weights = new HashMap<>(Map.of(
+            CodeGenTypeEnum.VUE_PROJECT.getValue(), 2
+    ));
+
+    /**
+     * 获取指定类型使用的提供方
+     */
+    public String getProvider(CodeGenTypeEnum codeGenType) {
+        return typeProviders.getOrDefault(codeGenType.getValue(), DEFAULT_PROVIDER);
+    }
+
+    /**
+     * 获取提供方的并发容量，未配置时为 1
+     */
+    public int getCapacity(String provider) {
+        return Math.max(1, providers.getOrDefault(provider, 1));
+    }
+
+    /**
+     * 获取指定类型的权重
+     */
+    public int getWeight(CodeGenTypeEnum codeGenType) {
+        return Math.max(1, weights.getOrDefault(codeGenType.getValue(), 1));
+    }
+}
@@ -0,0 +1,40 @@
+package com.zake.aicode.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 生成结果缓存配置
+ * 首轮对话（没有对话记忆）时，相同的提示词直接回放缓存的生成结果
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code.response-cache")
+@Data
+public class ResponseCacheConfig {
+
+    /**
+     * 是否开启（默认关闭，需要显式开启）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 最多缓存的条目数，超出按 LRU 淘汰
+     */
+    private int maxEntries = 5000;
+
+    /**
+     * 缓存有效期（小时）
+     */
+    private long ttlHours = 24;
+
+    /**
+     * 超过该长度的生成结果不缓存
+     */
+    private int maxResponseChars = 200_000;
+
+    /**
+     * 回放时每个片段的字符数
+     */
+    private int replayChunkChars = 64;
+}
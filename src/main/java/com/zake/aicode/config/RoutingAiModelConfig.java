@@ -1,7 +1,9 @@
 package com.zake.aicode.config;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import jakarta.annotation.Resource;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -31,6 +33,9 @@ public class RoutingAiModelConfig {
 
     private Boolean logResponses = false;
 
+    @Resource
+    private HttpClientBuilder sharedAiHttpClientBuilder;
+
     /**
      * 创建用于路由判断的ChatModel
      */
@@ -38,6 +43,7 @@ public class RoutingAiModelConfig {
     @Scope("prototype")//指定为 多例
     public ChatModel routingChatModelPrototype() {
         return OpenAiChatModel.builder()
+                .httpClientBuilder(sharedAiHttpClientBuilder)
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .baseUrl(baseUrl)
@@ -0,0 +1,73 @@
+package com.zake.aicode.config;
+
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SSE 片段合并配置
+ * 按大小或时间合并 token 后再下发，可以按代码生成类型单独配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code.sse-batch")
+@Data
+public class SseBatchConfig {
+
+    /**
+     * 是否开启合并
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单帧最大字符数
+     */
+    private int maxChars = 1024;
+
+    /**
+     * 最大等待时间（毫秒）
+     */
+    private long maxDelayMs = 30;
+
+    /**
+     * 按代码生成类型覆盖默认配置，key 为 CodeGenTypeEnum 的 value
+     */
+    private Map<String, TypeConfig> types = new HashMap<>();
+
+    /**
+     * 获取指定类型的单帧最大字符数
+     */
+    public int getMaxChars(CodeGenTypeEnum codeGenType) {
+        TypeConfig typeConfig = types.get(codeGenType.getValue());
+        if (typeConfig != null && typeConfig.getMaxChars() != null) {
+            return typeConfig.getMaxChars();
+        }
+        return maxChars;
+    }
+
+    /**
+     * 获取指定类型的最大等待时间，未开启合并时返回 0
+     */
+    public Duration getMaxDelay(CodeGenTypeEnum codeGenType) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        TypeConfig typeConfig = types.get(codeGenType.getValue());
+        if (typeConfig != null && typeConfig.getMaxDelayMs() != null) {
+            return Duration.ofMillis(typeConfig.getMaxDelayMs());
+        }
+        return Duration.ofMillis(maxDelayMs);
+    }
+
+    @Data
+    public static class TypeConfig {
+
+        private Integer maxChars;
+
+        private Long maxDelayMs;
+    }
+}
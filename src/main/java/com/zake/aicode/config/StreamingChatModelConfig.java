@@ -1,6 +1,7 @@
 package com.zake.aicode.config;
 
 import com.zake.aicode.monitor.AiModelMonitorListener;
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import jakarta.annotation.Resource;
@@ -37,10 +38,14 @@ public class StreamingChatModelConfig {
     @Resource
     private AiModelMonitorListener aiModelMonitorListener;
 
+    @Resource
+    private HttpClientBuilder sharedAiHttpClientBuilder;
+
     @Bean
     @Scope("prototype")//指定为 多例
     public StreamingChatModel streamingChatModelPrototype() {
         return OpenAiStreamingChatModel.builder()
+                .httpClientBuilder(sharedAiHttpClientBuilder)
                 .apiKey(apiKey)
                 .baseUrl(baseUrl)
                 .modelName(modelName)
@@ -0,0 +1,79 @@
+package com.zake.aicode.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目构建配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code.vue-build")
+@Data
+public class VueBuildConfig {
+
+    /**
+     * 是否开启依赖缓存（按 package.json 和锁文件复用 node_modules）
+     */
+    private boolean dependencyCacheEnabled = true;
+
+    /**
+     * 最多保留的依赖组合数，超出时删除最久未使用的
+     */
+    private int dependencyCacheMaxEntries = 20;
+
+    /**
+     * npm 镜像地址（例如内网的 Verdaccio），为空时使用 npm 默认配置
+     */
+    private String registry;
+
+    /**
+     * 离线模式：只从本地 npm 缓存安装，不访问网络
+     */
+    private boolean offline = false;
+
+    /**
+     * 同时执行的构建数，默认为 CPU 核数的一半
+     */
+    private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 排队的最大构建数，超出直接拒绝
+     */
+    private int maxQueueSize = 100;
+
+    /**
+     * 构建子进程的 nice 值（Linux/macOS），降低优先级避免影响接口响应
+     */
+    private int processNiceness = 10;
+
+    /**
+     * 构建子进程的 CPU 时间上限（秒，通过 prlimit 设置，0 表示不限制）
+     */
+    private int processCpuSeconds = 600;
+
+    /**
+     * 构建子进程 Node.js 堆内存上限（MB，通过 NODE_OPTIONS 设置，0 表示不限制）
+     */
+    private int processMemoryMb = 2048;
+
+    /**
+     * 每次构建保留的日志行数（超出后只保留最近的输出）
+     */
+    private int logBufferLines = 2000;
+
+    /**
+     * 是否通过常驻的 Vite 构建服务增量构建（不可用时回退到 npm run build）
+     */
+    private boolean daemonEnabled = true;
+
+    /**
+     * 构建服务同时保持的项目数，超出时关闭最久未使用的
+     */
+    private int daemonMaxProjects = 8;
+
+    /**
+     * 项目空闲多久后关闭其构建实例（分钟）
+     */
+    private int daemonIdleMinutes = 10;
+}
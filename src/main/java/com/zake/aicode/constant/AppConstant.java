@@ -16,11 +16,31 @@ public interface AppConstant {
      */
     String CODE_OUTPUT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_output";
 
+    /**
+     * 应用代码压缩包缓存目录
+     */
+    String CODE_ARCHIVE_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_archive";
+
+    /**
+     * Vue 项目依赖缓存目录（按 package.json 和锁文件缓存 node_modules）
+     */
+    String NODE_MODULES_CACHE_ROOT_DIR = System.getProperty("user.dir") + "/tmp/node_modules_cache";
+
     /**
      * 应用部署目录
      */
     String CODE_DEPLOY_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_deploy";
 
+    /**
+     * 应用部署快照目录（部署目录下的 deployKey 为指向当前快照的符号链接）
+     */
+    String CODE_DEPLOY_SNAPSHOT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_deploy_snapshot";
+
+    /**
+     * Vite 构建服务目录（服务脚本和各项目的构建输出）
+     */
+    String BUILD_DAEMON_ROOT_DIR = System.getProperty("user.dir") + "/tmp/build_daemon";
+
     /**
      * 应用部署域名
      */
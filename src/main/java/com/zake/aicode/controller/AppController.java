@@ -1,7 +1,6 @@
 package com.zake.aicode.controller;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.zake.aicode.annotation.AuthCheck;
 import com.zake.aicode.common.BaseResponse;
@@ -9,12 +8,16 @@ import com.zake.aicode.common.DeleteRequest;
 import com.zake.aicode.common.ResultUtils;
 import com.zake.aicode.constant.AppConstant;
 import com.zake.aicode.constant.UserConstant;
+import com.zake.aicode.core.builder.BuildLogManager;
+import com.zake.aicode.core.session.GenerationSession;
+import com.zake.aicode.core.session.GenerationSessionManager;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.exception.ThrowUtils;
 import com.zake.aicode.model.dto.app.*;
 import com.zake.aicode.model.entity.App;
 import com.zake.aicode.model.entity.User;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
 import com.zake.aicode.model.vo.AppVO;
 import com.zake.aicode.ratelimter.annotation.RateLimit;
 import com.zake.aicode.ratelimter.enums.RateLimitType;
@@ -30,10 +33,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 import java.io.File;
-import java.util.Map;
 
 /**
  * 应用 控制层。
@@ -53,10 +54,20 @@ public class AppController {
     @Resource
     private ProjectzDownloadService projectDownloadService;
 
+    @Resource
+    private GenerationSessionManager generationSessionManager;
+
+    @Resource
+    private BuildLogManager buildLogManager;
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     /**
      * 应用聊天生成代码（流式 SSE）
      * 必须写：在流式接口中显式声明
      *  MediaType.TEXT_EVENT_STREAM_VALUE 流式响应
+     * 生成过程由会话托管，与本次连接解耦；EventSource 断线自动重连时会带上 Last-Event-ID，
+     * 此时直接接回进行中的会话，从断点继续推送，不会重新生成；会话已不存在时返回错误事件结束。
      *
      * @param appId   应用 ID
      * @param message 用户消息
@@ -64,7 +75,9 @@ public class AppController {
      * @return 生成结果流
      */
     @GetMapping(value = "/chat/gen/code", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    @RateLimit(limitType = RateLimitType.USER,rate = 5, rateInterval = 60,message = "请求过于频繁，请稍后再试")//同一个用户在60s内只能请求5次
+    //同一个用户在60s内只能请求5次；断线重连（带 Last-Event-ID）只是接回会话，不计入次数
+    @RateLimit(limitType = RateLimitType.USER, rate = 5, rateInterval = 60, message = "请求过于频繁，请稍后再试",
+            skipIfHeader = LAST_EVENT_ID_HEADER)
     public Flux<ServerSentEvent<String>> chatToGenCode(@RequestParam Long appId,
                                                        @RequestParam String message,
                                                        HttpServletRequest request) {
@@ -73,28 +86,77 @@ public class AppController {
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
         // 获取当前登录用户
         User loginUser = userService.getLoginUser(request);
-        // 调用服务生成代码（流式）
-        Flux<String> contentFlux = appService.chatToGenCode(appId, message, loginUser);
-        // 转换为 ServerSentEvent 格式 解决空格丢失 和 前端不知道 什么时候结束的 问题
-        return contentFlux
-                .map(chunk -> {
-                    // 将内容包装成JSON对象
-                    Map<String, String> wrapper = Map.of("d", chunk);//创建不可变 map
-                    String jsonData = JSONUtil.toJsonStr(wrapper);
-                    // 创建 ServerSentEvent （sse）对象
-                    return ServerSentEvent.<String>builder()
-                            .data(jsonData)//设置数据
-                            .build();
-                })
-                // 2. 流终止处理：追加结束信号
-                .concatWith(Mono.just(
-                        // 发送结束事件
-                        ServerSentEvent.<String>builder()
-                                .event("done")
-                                .data("")
-                                .build()
-                ));
+        // 断线重连：接回进行中的会话
+        String lastEventId = request.getHeader(LAST_EVENT_ID_HEADER);
+        if (StrUtil.isNotBlank(lastEventId)) {
+            Flux<ServerSentEvent<String>> resumed = generationSessionManager.attach(appId, loginUser.getId(),
+                    parseLastEventId(lastEventId));
+            // 会话已过期（或服务重启）时不能重新开始生成，否则会重复调用模型、重复写入对话历史
+            return resumed != null ? resumed
+                    : GenerationSession.terminalError("生成会话已结束，请刷新页面查看结果");
+        }
+        // 调用服务生成代码（流式），会话负责转换为 ServerSentEvent 格式并追加结束事件
+        return generationSessionManager.start(appId, loginUser.getId(),
+                () -> appService.chatToGenCode(appId, message, loginUser));
+    }
+
+    /**
+     * 接回应用进行中（或刚结束）的生成会话
+     * 用于页面刷新后继续接收，或在另一个标签页同时观看生成过程
+     *
+     * @param appId       应用 ID
+     * @param lastEventId 已收到的最后一个事件序号，不传则从缓冲区开头回放
+     * @param request     请求对象
+     * @return 生成结果流
+     */
+    @GetMapping(value = "/chat/gen/code/resume", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> resumeGenCode(@RequestParam Long appId,
+                                                       @RequestParam(required = false) String lastEventId,
+                                                       HttpServletRequest request) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        User loginUser = userService.getLoginUser(request);
+        // 请求头优先（EventSource 自动重连），其次是参数
+        String headerEventId = request.getHeader(LAST_EVENT_ID_HEADER);
+        String eventId = StrUtil.isNotBlank(headerEventId) ? headerEventId : lastEventId;
+        Flux<ServerSentEvent<String>> resumed = generationSessionManager.attach(appId, loginUser.getId(),
+                StrUtil.isBlank(eventId) ? 0 : parseLastEventId(eventId));
+        ThrowUtils.throwIf(resumed == null, ErrorCode.NOT_FOUND_ERROR, "没有进行中的生成");
+        return resumed;
+    }
+
+    /**
+     * 查看 Vue 项目最近一次构建的日志（流式 SSE）
+     * 构建进行中时先回放已有输出再实时推送，结束时收到 done 事件；各阶段耗时以 phase 事件推送
+     *
+     * @param appId   应用 ID
+     * @param request 请求对象
+     * @return 构建日志流
+     */
+    @GetMapping(value = "/build/log", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamBuildLog(@RequestParam Long appId, HttpServletRequest request) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        App app = appService.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        User loginUser = userService.getLoginUser(request);
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限查看该应用的构建日志");
+        }
+        // EventSource 断线重连时从断点继续
+        String lastEventId = request.getHeader(LAST_EVENT_ID_HEADER);
+        Flux<ServerSentEvent<String>> buildLog = buildLogManager.attach(CodeGenTypeEnum.VUE_PROJECT.getValue() + "_" + appId,
+                StrUtil.isBlank(lastEventId) ? 0 : parseLastEventId(lastEventId));
+        ThrowUtils.throwIf(buildLog == null, ErrorCode.NOT_FOUND_ERROR, "没有构建记录");
+        return buildLog;
     }
+
+    private long parseLastEventId(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "Last-Event-ID 无效");
+        }
+    }
+
     /**
      * 创建应用
      *
@@ -144,7 +206,7 @@ public class AppController {
         // 6. 生成下载文件名（不建议添加中文内容）
         String downloadFileName = String.valueOf(appId);
         // 7. 调用通用下载服务
-        projectDownloadService.downloadProjectAsZip(sourceDirPath, downloadFileName, response);
+        projectDownloadService.downloadProjectAsZip(sourceDirPath, downloadFileName, request, response);
     }
     /**
      * 应用部署
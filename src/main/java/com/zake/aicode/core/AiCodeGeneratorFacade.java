@@ -1,17 +1,19 @@
 package com.zake.aicode.core;
 
-import cn.hutool.json.JSONUtil;
 import com.zake.aicode.ai.AiCodeGeneratorService;
 import com.zake.aicode.ai.AiCodeGeneratorServiceFactory;
 import com.zake.aicode.ai.model.HtmlCodeResult;
 import com.zake.aicode.ai.model.MultiFileCodeResult;
 import com.zake.aicode.ai.model.message.AiResponseMessage;
+import com.zake.aicode.ai.model.message.StreamMessage;
 import com.zake.aicode.ai.model.message.ToolExecutedMessage;
 import com.zake.aicode.ai.model.message.ToolRequestMessage;
 import com.zake.aicode.constant.AppConstant;
 import com.zake.aicode.core.builder.VueProjectBuilder;
-import com.zake.aicode.core.parser.CodeParserExecutor;
+import com.zake.aicode.core.cache.GenerationResponseCache;
+import com.zake.aicode.core.parser.StreamingCodeParser;
 import com.zake.aicode.core.saver.CodeFileSaverExecutor;
+import com.zake.aicode.core.saver.StreamingCodeFileSaver;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.model.enums.CodeGenTypeEnum;
@@ -42,6 +44,9 @@ public class AiCodeGeneratorFacade {
     @Resource
     private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
 
+    @Resource
+    private GenerationResponseCache generationResponseCache;
+
     /**
      * 统一入口：根据类型生成并保存代码（使用 appId）
      *
@@ -80,8 +85,9 @@ public class AiCodeGeneratorFacade {
      * @param userMessage     用户提示词
      * @param codeGenTypeEnum 生成类型
      * @param appId           应用 ID
+     * @return 类型化的流式消息（只在 SSE 出口处序列化为 JSON）
      */
-    public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
@@ -89,12 +95,17 @@ public class AiCodeGeneratorFacade {
         AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
         return switch (codeGenTypeEnum) {
             case HTML -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId);
+                // 首轮对话相同提示词直接回放缓存结果，同样经过流式保存
+                Flux<String> codeStream = generationResponseCache.withCache(appId, CodeGenTypeEnum.HTML, userMessage,
+                        () -> aiCodeGeneratorService.generateHtmlCodeStream(userMessage),
+                        (stream, onSaved) -> processCodeStream(stream, CodeGenTypeEnum.HTML, appId, onSaved));
+                yield codeStream.map(AiResponseMessage::new);
             }
             case MULTI_FILE -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId);
+                Flux<String> codeStream = generationResponseCache.withCache(appId, CodeGenTypeEnum.MULTI_FILE, userMessage,
+                        () -> aiCodeGeneratorService.generateMultiFileCodeStream(userMessage),
+                        (stream, onSaved) -> processCodeStream(stream, CodeGenTypeEnum.MULTI_FILE, appId, onSaved));
+                yield codeStream.map(AiResponseMessage::new);
             }
             case VUE_PROJECT -> {
                 TokenStream codeStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
@@ -108,28 +119,26 @@ public class AiCodeGeneratorFacade {
     }
 
     /**
-     * 将 TokenStream 转换为 Flux<String>，并传递工具调用信息
+     * 将 TokenStream 转换为 Flux<StreamMessage>，并传递工具调用信息
+     * 直接下发消息对象，不在每个 token 上做 JSON 序列化
      *
      * @param tokenStream TokenStream 对象
-     * @return Flux<String> 流式响应
+     * @return Flux<StreamMessage> 流式响应
      */
-    private Flux<String> processTokenStream(TokenStream tokenStream,Long appId) {
+    private Flux<StreamMessage> processTokenStream(TokenStream tokenStream,Long appId) {
         return Flux.create(sink -> {
             tokenStream
                     // 处理 AI 响应信息
                     .onPartialResponse((String partialResponse) -> {
-                        AiResponseMessage aiResponseMessage = new AiResponseMessage(partialResponse);
-                        sink.next(JSONUtil.toJsonStr(aiResponseMessage));
+                        sink.next(new AiResponseMessage(partialResponse));
                     })
                     // 处理工具调用信息
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
-                        ToolRequestMessage toolRequestMessage = new ToolRequestMessage(toolExecutionRequest);
-                        sink.next(JSONUtil.toJsonStr(toolRequestMessage));
+                        sink.next(new ToolRequestMessage(toolExecutionRequest));
                     })
                     // 处理工具执行完成信息
                     .onToolExecuted((ToolExecution toolExecution) -> {
-                        ToolExecutedMessage toolExecutedMessage = new ToolExecutedMessage(toolExecution);
-                        sink.next(JSONUtil.toJsonStr(toolExecutedMessage));
+                        sink.next(new ToolExecutedMessage(toolExecution));
                     })
                     // 处理完成信息
                     .onCompleteResponse((ChatResponse response) -> {
@@ -152,26 +161,34 @@ public class AiCodeGeneratorFacade {
      * @param codeStream  代码流
      * @param codeGenType 代码生成类型
      * @param appId       应用 ID
+     * @param onSaved     代码保存成功后的回调（如写入生成结果缓存）
      * @return 流式响应
      */
-    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType, Long appId) {
-        StringBuilder codeBuilder = new StringBuilder();
+    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenType, Long appId,
+                                           Runnable onSaved) {
+        // 边接收边解析，代码块闭合时立即落盘，不再缓存完整响应
+        StreamingCodeFileSaver codeFileSaver = new StreamingCodeFileSaver(codeGenType, appId);
+        StreamingCodeParser codeParser = new StreamingCodeParser(codeFileSaver);
         return codeStream.doOnNext(chunk -> {
-            // 实时收集代码片段
-            codeBuilder.append(chunk);
+            try {
+                codeParser.append(chunk);
+            } catch (Exception e) {
+                // 解析保存异常不影响流式返回
+                log.error("流式解析代码失败: {}", e.getMessage());
+            }
         }).doOnComplete(() -> {
-            // 流式返回完成后保存代码
+            // 流式返回完成后收尾（闭合未结束的代码块、兜底保存）
             try {
-                String completeCode = codeBuilder.toString();
-                // 使用执行器解析代码
-                Object parsedResult = CodeParserExecutor.executeParser(completeCode, codeGenType);
-                // 使用执行器保存代码
-                File savedDir = CodeFileSaverExecutor.executeSaver(parsedResult, codeGenType, appId);
+                codeParser.finish();
+                File savedDir = codeFileSaver.finish();
                 log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
             } catch (Exception e) {
                 log.error("保存失败: {}", e.getMessage());
+                return;
             }
-        });
+            onSaved.run();
+        }).doOnError(error -> codeFileSaver.abort())
+                .doOnCancel(codeFileSaver::abort);
     }
 
 
@@ -0,0 +1,331 @@
+package com.zake.aicode.core.admission;
+
+import com.zake.aicode.config.GenerationAdmissionConfig;
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 代码生成并发准入控制
+ * 每个模型提供方一个按权重计数的信号量，满载时请求排队而不是打到提供方触发 429。
+ * 排队按用户公平轮转：每个用户每轮最多放行一个请求，单个用户连续提交不会饿死其他用户。
+ * 队首请求权重放不下时不会被后面的小请求插队，避免重量级请求（如 Vue 工程）长期等待。
+ * 排队位置通过订阅上下文中的监听器推送（见 {@link #queuePositionListener}）。
+ */
+@Slf4j
+@Component
+public class GenerationAdmissionController {
+
+    private static final String QUEUE_POSITION_LISTENER_KEY =
+            GenerationAdmissionController.class.getName() + ".queuePositionListener";
+
+    private static final IntConsumer NO_OP_LISTENER = position -> {
+    };
+
+    @Resource
+    private GenerationAdmissionConfig generationAdmissionConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 提供方 -> 准入闸门
+     */
+    private final Map<String, ProviderGate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * 构造携带排队位置监听器的订阅上下文
+     * 监听器在准入控制的锁内回调，必须快速且不阻塞
+     *
+     * @param listener 排队位置（从 1 开始）监听器
+     * @return 订阅上下文
+     */
+    public static ContextView queuePositionListener(IntConsumer listener) {
+        return Context.of(QUEUE_POSITION_LISTENER_KEY, listener);
+    }
+
+    /**
+     * 获得准入后再订阅生成流，流结束（成功、失败或取消）时归还容量
+     *
+     * @param userId         用户 ID
+     * @param codeGenType    代码生成类型
+     * @param streamSupplier 生成流的提供者（获得准入后才调用，可能在其他线程上）
+     * @return 生成流
+     */
+    public <T> Flux<T> admit(Long userId, CodeGenTypeEnum codeGenType, Supplier<Flux<T>> streamSupplier) {
+        if (!generationAdmissionConfig.isEnabled()) {
+            return Flux.defer(streamSupplier);
+        }
+        ProviderGate gate = gates.computeIfAbsent(generationAdmissionConfig.getProvider(codeGenType), this::createGate);
+        int weight = Math.min(generationAdmissionConfig.getWeight(codeGenType), gate.capacity);
+        return Flux.deferContextual(contextView -> {
+            IntConsumer listener = contextView.getOrDefault(QUEUE_POSITION_LISTENER_KEY, NO_OP_LISTENER);
+            Ticket ticket = new Ticket(gate, userId, weight, listener);
+            return Mono.<Ticket>create(sink -> {
+                        ticket.sink = sink;
+                        sink.onCancel(ticket::cancel);
+                        gate.enqueue(ticket);
+                    })
+                    .flatMapMany(admitted -> Flux.defer(streamSupplier).doFinally(signalType -> admitted.release()));
+        });
+    }
+
+    private ProviderGate createGate(String provider) {
+        ProviderGate gate = new ProviderGate(provider, generationAdmissionConfig.getCapacity(provider),
+                generationAdmissionConfig.getMaxQueueSize());
+        Gauge.builder("generation_admission_in_use", gate, g -> g.inUse)
+                .description("已占用的生成并发容量")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("generation_admission_queue_size", gate, g -> g.queued)
+                .description("排队中的生成请求数")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        gate.waitTimer = Timer.builder("generation_admission_wait_duration")
+                .description("生成请求排队等待时间")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        return gate;
+    }
+
+    private enum TicketState {
+        WAITING,
+        ADMITTED,
+        CANCELLED
+    }
+
+    /**
+     * 单个生成请求的准入凭证
+     */
+    private static final class Ticket {
+
+        private final ProviderGate gate;
+
+        private final Long userId;
+
+        private final int weight;
+
+        private final IntConsumer listener;
+
+        private final long createdAt = System.nanoTime();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private MonoSink<Ticket> sink;
+
+        /**
+         * 以下字段由 gate 锁保护
+         */
+        private TicketState state = TicketState.WAITING;
+
+        private int position;
+
+        private Ticket(ProviderGate gate, Long userId, int weight, IntConsumer listener) {
+            this.gate = gate;
+            this.userId = userId;
+            this.weight = weight;
+            this.listener = listener;
+        }
+
+        private void updatePosition(int newPosition) {
+            if (newPosition == position) {
+                return;
+            }
+            position = newPosition;
+            try {
+                listener.accept(newPosition);
+            } catch (Exception e) {
+                log.warn("推送排队位置失败: {}", e.getMessage());
+            }
+        }
+
+        private void admit() {
+            gate.waitTimer.record(Duration.ofNanos(System.nanoTime() - createdAt));
+            sink.success(this);
+        }
+
+        private void cancel() {
+            gate.cancel(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                gate.release(this);
+            }
+        }
+    }
+
+    /**
+     * 单个提供方的准入闸门
+     */
+    private static final class ProviderGate {
+
+        private final String provider;
+
+        private final int capacity;
+
+        private final int maxQueueSize;
+
+        /**
+         * 用户 -> 该用户排队中的请求（按到达顺序）；迭代顺序即轮转顺序
+         */
+        private final LinkedHashMap<Long, ArrayDeque<Ticket>> queues = new LinkedHashMap<>();
+
+        private Timer waitTimer;
+
+        private int inUse;
+
+        private int queued;
+
+        private ProviderGate(String provider, int capacity, int maxQueueSize) {
+            this.provider = provider;
+            this.capacity = capacity;
+            this.maxQueueSize = maxQueueSize;
+        }
+
+        private void enqueue(Ticket ticket) {
+            boolean admitted = false;
+            boolean rejected = false;
+            synchronized (this) {
+                if (queued == 0 && inUse + ticket.weight <= capacity) {
+                    inUse += ticket.weight;
+                    ticket.state = TicketState.ADMITTED;
+                    admitted = true;
+                } else if (queued >= maxQueueSize) {
+                    ticket.state = TicketState.CANCELLED;
+                    rejected = true;
+                } else {
+                    queues.computeIfAbsent(ticket.userId, key -> new ArrayDeque<>()).add(ticket);
+                    queued++;
+                    notifyPositions();
+                }
+            }
+            if (admitted) {
+                ticket.admit();
+            } else if (rejected) {
+                log.warn("提供方 {} 排队已满，拒绝用户 {} 的生成请求", provider, ticket.userId);
+                ticket.sink.error(new BusinessException(ErrorCode.TOO_MANY_REQUEST, "当前生成排队人数过多，请稍后再试"));
+            }
+        }
+
+        private void cancel(Ticket ticket) {
+            List<Ticket> admitted;
+            synchronized (this) {
+                if (ticket.state == TicketState.CANCELLED) {
+                    return;
+                }
+                if (ticket.state == TicketState.ADMITTED) {
+                    // 已放行但流尚未开始就被取消，归还容量
+                    admitted = null;
+                } else {
+                    ticket.state = TicketState.CANCELLED;
+                    ArrayDeque<Ticket> userQueue = queues.get(ticket.userId);
+                    if (userQueue != null && userQueue.remove(ticket)) {
+                        queued--;
+                        if (userQueue.isEmpty()) {
+                            queues.remove(ticket.userId);
+                        }
+                    }
+                    // 队首被移除后，后面的请求可能可以放行
+                    admitted = dispatch();
+                    notifyPositions();
+                }
+            }
+            if (admitted == null) {
+                ticket.release();
+            } else {
+                fire(admitted);
+            }
+        }
+
+        private void release(Ticket ticket) {
+            List<Ticket> admitted;
+            synchronized (this) {
+                inUse -= ticket.weight;
+                admitted = dispatch();
+                if (!admitted.isEmpty()) {
+                    notifyPositions();
+                }
+            }
+            fire(admitted);
+        }
+
+        /**
+         * 按用户轮转放行，直到容量不足（需持有锁）
+         */
+        private List<Ticket> dispatch() {
+            List<Ticket> admitted = new ArrayList<>();
+            while (!queues.isEmpty()) {
+                Map.Entry<Long, ArrayDeque<Ticket>> head = queues.entrySet().iterator().next();
+                Ticket next = head.getValue().peek();
+                if (inUse + next.weight > capacity) {
+                    break;
+                }
+                head.getValue().poll();
+                queued--;
+                // 放行后该用户移到轮转末尾
+                queues.remove(head.getKey());
+                if (!head.getValue().isEmpty()) {
+                    queues.put(head.getKey(), head.getValue());
+                }
+                inUse += next.weight;
+                next.state = TicketState.ADMITTED;
+                admitted.add(next);
+            }
+            return admitted;
+        }
+
+        /**
+         * 按轮转顺序重新计算排队位置并推送变化（需持有锁）
+         */
+        private void notifyPositions() {
+            List<Iterator<Ticket>> iterators = new ArrayList<>(queues.size());
+            for (ArrayDeque<Ticket> userQueue : queues.values()) {
+                iterators.add(userQueue.iterator());
+            }
+            int position = 0;
+            boolean remaining = true;
+            while (remaining) {
+                remaining = false;
+                for (Iterator<Ticket> iterator : iterators) {
+                    if (iterator.hasNext()) {
+                        iterator.next().updatePosition(++position);
+                        remaining = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 在锁外通知放行，生成流在虚拟线程上开始，不占用归还容量的线程
+         */
+        private void fire(List<Ticket> admitted) {
+            for (Ticket ticket : admitted) {
+                Thread.ofVirtual().name("generation-admit-" + provider).start(ticket::admit);
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.zake.aicode.core.archive;
+
+import cn.hutool.core.util.HexUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+
+/**
+ * 项目压缩包缓存
+ * 压缩包按 项目目录 + 内容指纹 缓存在磁盘上，内容不变时重复下载直接发送已有文件；
+ * 内容指纹由参与打包的文件的相对路径、大小、修改时间计算，只遍历目录元数据，不读取文件内容。
+ * 代码保存器和文件工具写入后调用 {@link #invalidate}，指纹本身也只缓存一小段时间，兜底其他途径的修改。
+ * 冷启动打包时多个文件并行压缩，同一内容的并发请求共用一次打包。
+ */
+@Slf4j
+public final class ProjectArchiveCache {
+
+    /**
+     * 需要过滤的文件和目录名称
+     */
+    private static final Set<String> IGNORED_NAMES = Set.of(
+            "node_modules",
+            ".git",
+            "dist",
+            "build",
+            ".DS_Store",
+            ".env",
+            "target",
+            ".mvn",
+            ".idea",
+            ".vscode",
+            ".build-fingerprint"
+    );
+
+    /**
+     * 需要过滤的文件扩展名
+     */
+    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
+            ".log",
+            ".tmp",
+            ".cache",
+            // 预览用的预压缩文件
+            ".gz",
+            ".br"
+    );
+
+    private static final String ARCHIVE_SUFFIX = ".zip";
+
+    /**
+     * 旧压缩包在最近一次使用后保留一段时间再删除，避免删除正在发送的文件
+     */
+    private static final Duration STALE_ARCHIVE_RETENTION = Duration.ofMinutes(10);
+
+    /**
+     * 并行压缩的线程数，避免单次下载占满所有核心
+     */
+    private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * 项目目录 -> 内容快照
+     */
+    private static final Cache<Path, Snapshot> SNAPSHOTS = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    /**
+     * 正在打包的压缩包
+     */
+    private static final ConcurrentMap<Path, CompletableFuture<Path>> BUILDING = new ConcurrentHashMap<>();
+
+    private ProjectArchiveCache() {
+    }
+
+    /**
+     * 压缩包
+     *
+     * @param file        压缩包文件
+     * @param fingerprint 内容指纹
+     * @param size        文件大小
+     */
+    public record Archive(Path file, String fingerprint, long size) {
+    }
+
+    private record FileEntry(String path, long size, long lastModified) {
+    }
+
+    private record Snapshot(String fingerprint, List<FileEntry> entries) {
+    }
+
+    /**
+     * 获取项目当前内容对应的压缩包，不存在时打包
+     *
+     * @param projectDir 项目目录
+     * @return 压缩包
+     */
+    public static Archive getArchive(Path projectDir) {
+        Path dir = projectDir.toAbsolutePath().normalize();
+        try {
+            return getOrBuild(dir);
+        } catch (BusinessException e) {
+            // 打包期间文件被修改或删除，重新扫描后再试一次
+            log.warn("项目打包失败，重新扫描后重试: {}", dir);
+            SNAPSHOTS.invalidate(dir);
+            return getOrBuild(dir);
+        }
+    }
+
+    /**
+     * 项目内容发生变化
+     *
+     * @param projectDir 项目目录
+     */
+    public static void invalidate(Path projectDir) {
+        SNAPSHOTS.invalidate(projectDir.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 项目内容发生变化
+     *
+     * @param projectDirPath 项目目录
+     */
+    public static void invalidate(String projectDirPath) {
+        invalidate(Path.of(projectDirPath));
+    }
+
+    /**
+     * 判断文件或目录名是否需要过滤
+     */
+    public static boolean isIgnored(String name) {
+        if (IGNORED_NAMES.contains(name)) {
+            return true;
+        }
+        for (String extension : IGNORED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Archive getOrBuild(Path dir) {
+        Snapshot snapshot = SNAPSHOTS.get(dir, ProjectArchiveCache::scan);
+        Path archiveFile = Path.of(AppConstant.CODE_ARCHIVE_ROOT_DIR, dir.getFileName().toString(),
+                snapshot.fingerprint() + ARCHIVE_SUFFIX);
+        try {
+            if (Files.isRegularFile(archiveFile)) {
+                // 记录最近一次使用，清理旧压缩包时不会删除刚被使用过的文件
+                Files.setLastModifiedTime(archiveFile, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                build(dir, snapshot, archiveFile);
+            }
+            return new Archive(archiveFile, snapshot.fingerprint(), Files.size(archiveFile));
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "读取项目压缩包失败");
+        }
+    }
+
+    /**
+     * 扫描项目目录，计算内容指纹
+     * 忽略的目录整体跳过，不再进入
+     */
+    private static Snapshot scan(Path dir) {
+        List<FileEntry> entries = new ArrayList<>();
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
+                    if (!subDir.equals(dir) && isIgnored(subDir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && !isIgnored(file.getFileName().toString())) {
+                        String relativePath = dir.relativize(file).toString().replace(File.separatorChar, '/');
+                        entries.add(new FileEntry(relativePath, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.warn("扫描文件失败: {}, {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "扫描项目目录失败");
+        }
+        entries.sort(Comparator.comparing(FileEntry::path));
+        MessageDigest digest = sha256();
+        for (FileEntry entry : entries) {
+            digest.update((entry.path() + '\0' + entry.size() + '\0' + entry.lastModified() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return new Snapshot(HexUtil.encodeHexStr(digest.digest()), entries);
+    }
+
+    private static void build(Path dir, Snapshot snapshot, Path archiveFile) {
+        CompletableFuture<Path> building = new CompletableFuture<>();
+        CompletableFuture<Path> existing = BUILDING.putIfAbsent(archiveFile, building);
+        if (existing != null) {
+            // 其他请求正在打包相同内容，等待其完成
+            try {
+                existing.join();
+                return;
+            } catch (CompletionException e) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目打包失败");
+            }
+        }
+        try {
+            long start = System.currentTimeMillis();
+            writeArchive(dir, snapshot, archiveFile);
+            log.info("项目打包完成: {}，{} 个文件，耗时 {} ms", archiveFile, snapshot.entries().size(),
+                    System.currentTimeMillis() - start);
+            removeStaleArchives(archiveFile);
+            building.complete(archiveFile);
+        } catch (Exception e) {
+            log.error("项目打包失败: {}", dir, e);
+            building.completeExceptionally(e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目打包失败");
+        } finally {
+            BUILDING.remove(archiveFile, building);
+        }
+    }
+
+    /**
+     * 并行压缩各文件后按顺序写入压缩包，先写临时文件再原子替换
+     */
+    private static void writeArchive(Path dir, Snapshot snapshot, Path archiveFile) throws Exception {
+        Files.createDirectories(archiveFile.getParent());
+        Path tempFile = archiveFile.resolveSibling(archiveFile.getFileName() + "." + UUID.randomUUID() + ".part");
+        // writeTo 结束时会关闭线程池
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+        ParallelScatterZipCreator creator = new ParallelScatterZipCreator(executor);
+        for (FileEntry fileEntry : snapshot.entries()) {
+            Path file = dir.resolve(fileEntry.path());
+            ZipArchiveEntry zipEntry = new ZipArchiveEntry(fileEntry.path());
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+            zipEntry.setTime(fileEntry.lastModified());
+            creator.addArchiveEntry(zipEntry, () -> {
+                try {
+                    return Files.newInputStream(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(tempFile.toFile())) {
+            out.setEncoding(StandardCharsets.UTF_8.name());
+            creator.writeTo(out);
+        } catch (Exception e) {
+            executor.shutdownNow();
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        try {
+            Files.move(tempFile, archiveFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, archiveFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 删除同一项目下过期的旧压缩包
+     */
+    private static void removeStaleArchives(Path current) {
+        long threshold = System.currentTimeMillis() - STALE_ARCHIVE_RETENTION.toMillis();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(current.getParent(), "*" + ARCHIVE_SUFFIX)) {
+            for (Path archive : stream) {
+                if (!archive.equals(current) && Files.getLastModifiedTime(archive).toMillis() < threshold) {
+                    Files.deleteIfExists(archive);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理旧压缩包失败: {}", e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.zake.aicode.core.builder;
+
+import cn.hutool.core.util.HexUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 项目构建协调器
+ * - 按源码内容计算指纹（不含 node_modules、dist 等），与上次成功构建的指纹一致且 dist 存在时跳过构建
+ * - 同一项目的并发构建请求合并为一次，后来者等待正在进行的构建结果
+ * - 等待期间源码又发生变化时，在前一次构建结束后重新构建
+ */
+@Slf4j
+@Component
+public class BuildCoordinator {
+
+    /**
+     * 上次成功构建的源码指纹，放在项目根目录（打包下载时已过滤）
+     */
+    static final String FINGERPRINT_FILE = ".build-fingerprint";
+
+    private static final String DIST_DIR = "dist";
+
+    /**
+     * 不参与指纹计算的目录：依赖和构建产物
+     * 不复用下载打包的过滤规则，那份规则还会排除 .env、build 目录等 Vite 构建时会读取的文件
+     */
+    private static final Set<String> EXCLUDED_DIRS = Set.of("node_modules", DIST_DIR);
+
+    /**
+     * 不参与指纹计算的文件：指纹文件本身；安装依赖时 npm 会改写锁文件，但不影响构建结果
+     */
+    private static final Set<String> EXCLUDED_FILES = Set.of(FINGERPRINT_FILE, "package-lock.json");
+
+    private final ConcurrentMap<Path, InFlight> inFlightBuilds = new ConcurrentHashMap<>();
+
+    private record InFlight(String fingerprint, CompletableFuture<Boolean> result) {
+    }
+
+    /**
+     * 按需构建项目
+     *
+     * @param projectDir 项目目录
+     * @param builder    实际执行构建的逻辑，返回是否成功
+     * @return 是否构建成功（跳过构建时返回 true）
+     */
+    public boolean build(Path projectDir, BooleanSupplier builder) {
+        Path dir = projectDir.toAbsolutePath().normalize();
+        while (true) {
+            String fingerprint = fingerprint(dir);
+            if (isBuilt(dir, fingerprint)) {
+                log.info("源码未变化，跳过构建: {}", dir);
+                return true;
+            }
+            InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+            InFlight existing = inFlightBuilds.putIfAbsent(dir, mine);
+            if (existing != null) {
+                boolean result = await(existing);
+                if (fingerprint != null && fingerprint.equals(existing.fingerprint())) {
+                    return result;
+                }
+                // 源码在那次构建开始后发生了变化，重新检查
+                continue;
+            }
+            boolean success = false;
+            try {
+                success = runBuild(dir, fingerprint, builder);
+                return success;
+            } finally {
+                // 先移除再通知，等待者重新检查时不会再看到这次构建
+                inFlightBuilds.remove(dir, mine);
+                mine.result().complete(success);
+            }
+        }
+    }
+
+    /**
+     * 判断项目当前源码是否已经构建过（用于排队前快速跳过）
+     *
+     * @param projectDir 项目目录
+     */
+    public boolean isUpToDate(Path projectDir) {
+        Path dir = projectDir.toAbsolutePath().normalize();
+        return isBuilt(dir, fingerprint(dir));
+    }
+
+    private static boolean isBuilt(Path dir, String fingerprint) {
+        return fingerprint != null && fingerprint.equals(readFingerprint(dir)) && Files.isDirectory(dir.resolve(DIST_DIR));
+    }
+
+    private boolean runBuild(Path dir, String fingerprint, BooleanSupplier builder) {
+        deleteFingerprint(dir);
+        if (!builder.getAsBoolean()) {
+            return false;
+        }
+        if (fingerprint != null) {
+            // 记录构建开始时的指纹，构建期间源码若有修改，下次会重新构建
+            writeFingerprint(dir, fingerprint);
+        }
+        return true;
+    }
+
+    private static boolean await(InFlight inFlight) {
+        try {
+            return inFlight.result().join();
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 计算源码指纹：相对路径 + 文件内容，忽略依赖和构建产物目录
+     *
+     * @return 指纹，读取失败时为 null（不跳过构建）
+     */
+    static String fingerprint(Path dir) {
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
+                    if (!subDir.equals(dir) && EXCLUDED_DIRS.contains(subDir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    if (attrs.isRegularFile() && !EXCLUDED_FILES.contains(name)) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            files.sort(null);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for (Path file : files) {
+                String relativePath = dir.relativize(file).toString().replace(File.separatorChar, '/');
+                digest.update((relativePath + '\0').getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                digest.update((byte) '\n');
+            }
+            return HexUtil.encodeHexStr(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("计算源码指纹失败: {}, {}", dir, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String readFingerprint(Path dir) {
+        try {
+            return Files.readString(dir.resolve(FINGERPRINT_FILE), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeFingerprint(Path dir, String fingerprint) {
+        try {
+            Files.writeString(dir.resolve(FINGERPRINT_FILE), fingerprint, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("写入构建指纹失败: {}", e.getMessage());
+        }
+    }
+
+    private static void deleteFingerprint(Path dir) {
+        try {
+            Files.deleteIfExists(dir.resolve(FINGERPRINT_FILE));
+        } catch (IOException e) {
+            log.warn("删除构建指纹失败: {}", e.getMessage());
+        }
+    }
+}
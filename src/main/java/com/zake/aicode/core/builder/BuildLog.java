@@ -0,0 +1,113 @@
+package com.zake.aicode.core.builder;
+
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+/**
+ * 单次构建的日志
+ * 构建输出逐行写入有界的回放缓冲区（环形，只保留最近的若干行）并实时多播，
+ * 构建中途打开的页面先收到缓冲区中的内容，再继续接收新的输出。
+ * 事件：默认事件为一行输出；phase 事件为阶段耗时；done 事件表示构建结束。
+ */
+@Slf4j
+public class BuildLog {
+
+    /**
+     * 阶段事件名称，与前端约定
+     */
+    private static final String PHASE_EVENT = "phase";
+
+    /**
+     * 结束事件名称，与前端约定
+     */
+    private static final String DONE_EVENT = "done";
+
+    /**
+     * 单行最多保留的字符数（压缩后的产物可能整段输出在一行）
+     */
+    private static final int MAX_LINE_CHARS = 2000;
+
+    @Getter
+    private final String projectName;
+
+    private final Sinks.Many<LogEvent> sink;
+
+    private long sequence = 0;
+
+    @Getter
+    private volatile boolean completed = false;
+
+    public BuildLog(String projectName, int bufferLines) {
+        this.projectName = projectName;
+        this.sink = Sinks.many().replay().limit(bufferLines);
+    }
+
+    /**
+     * 订阅构建日志
+     *
+     * @param lastEventId 客户端已收到的最后一个事件序号，从头订阅传 0
+     * @return SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> attach(long lastEventId) {
+        return sink.asFlux()
+                .filter(logEvent -> logEvent.seq() > lastEventId)
+                .map(LogEvent::event);
+    }
+
+    /**
+     * 追加一行输出（stdout 和 stderr 的读取线程都会调用）
+     */
+    public synchronized void append(String line) {
+        String text = line.length() > MAX_LINE_CHARS ? line.substring(0, MAX_LINE_CHARS) + "..." : line;
+        emit(null, JSONUtil.toJsonStr(Map.of("d", text)));
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param phase      阶段名称
+     * @param durationMs 耗时（毫秒）
+     * @param success    是否成功
+     */
+    public synchronized void phase(String phase, long durationMs, boolean success) {
+        emit(PHASE_EVENT, JSONUtil.toJsonStr(Map.of("phase", phase, "durationMs", durationMs, "success", success)));
+    }
+
+    /**
+     * 构建结束
+     *
+     * @param success 是否成功
+     */
+    public synchronized void finish(boolean success) {
+        if (completed) {
+            return;
+        }
+        emit(DONE_EVENT, JSONUtil.toJsonStr(Map.of("success", success)));
+        completed = true;
+        sink.tryEmitComplete();
+    }
+
+    private void emit(String event, String data) {
+        if (completed) {
+            return;
+        }
+        long seq = ++sequence;
+        Sinks.EmitResult result = sink.tryEmitNext(new LogEvent(seq, ServerSentEvent.<String>builder()
+                .id(String.valueOf(seq))
+                .event(event)
+                .data(data)
+                .build()));
+        if (result.isFailure()) {
+            log.warn("项目 {} 构建日志下发失败: {}", projectName, result);
+        }
+    }
+
+    private record LogEvent(long seq, ServerSentEvent<String> event) {
+    }
+}
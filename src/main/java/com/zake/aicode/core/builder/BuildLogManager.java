@@ -0,0 +1,82 @@
+package com.zake.aicode.core.builder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.config.VueBuildConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 构建日志管理器
+ * 每个项目保留最近一次构建的日志，构建结束后仍可查看一段时间。
+ */
+@Component
+public class BuildLogManager {
+
+    @Resource
+    private VueBuildConfig vueBuildConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 项目目录名（如 vue_project_1）-> 最近一次构建的日志
+     */
+    private final Cache<String, BuildLog> buildLogs = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /**
+     * 开始记录一次构建，替换该项目之前的日志
+     *
+     * @param projectDir 项目目录
+     * @return 构建日志
+     */
+    public BuildLog start(Path projectDir) {
+        String projectName = projectDir.toAbsolutePath().normalize().getFileName().toString();
+        BuildLog buildLog = new BuildLog(projectName, vueBuildConfig.getLogBufferLines());
+        BuildLog previous = buildLogs.asMap().put(projectName, buildLog);
+        if (previous != null) {
+            previous.finish(false);
+        }
+        return buildLog;
+    }
+
+    /**
+     * 订阅项目最近一次构建的日志
+     *
+     * @param projectName 项目目录名
+     * @param lastEventId 客户端已收到的最后一个事件序号
+     * @return SSE 事件流，没有构建记录时返回 null
+     */
+    public Flux<ServerSentEvent<String>> attach(String projectName, long lastEventId) {
+        BuildLog buildLog = buildLogs.getIfPresent(projectName);
+        return buildLog == null ? null : buildLog.attach(lastEventId);
+    }
+
+    /**
+     * 记录阶段耗时：写入构建日志并上报指标
+     *
+     * @param buildLog   构建日志
+     * @param phase      阶段名称
+     * @param durationMs 耗时（毫秒）
+     * @param success    是否成功
+     */
+    public void recordPhase(BuildLog buildLog, String phase, long durationMs, boolean success) {
+        buildLog.phase(phase, durationMs, success);
+        Timer.builder("vue_build_phase_duration")
+                .description("构建各阶段耗时")
+                .tag("phase", phase)
+                .tag("result", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(Duration.ofMillis(durationMs));
+    }
+}
@@ -0,0 +1,22 @@
+package com.zake.aicode.core.builder;
+
+/**
+ * 构建优先级，声明顺序即优先顺序
+ */
+public enum BuildPriority {
+
+    /**
+     * 用户发起的部署，同步等待构建结果
+     */
+    DEPLOY,
+
+    /**
+     * 工作流中的构建节点，生成流程等待构建结果
+     */
+    WORKFLOW,
+
+    /**
+     * 生成完成后的后台预览构建
+     */
+    PREVIEW
+}
@@ -0,0 +1,179 @@
+package com.zake.aicode.core.builder;
+
+import com.zake.aicode.config.VueBuildConfig;
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 构建调度器
+ * 同时执行的构建数有上限，超出的按优先级排队（同优先级先到先得），队列满时拒绝。
+ * 同一项目已在排队时不重复排队，共用同一个结果；优先级更高的请求会提升排队中任务的优先级。
+ */
+@Slf4j
+@Component
+public class BuildScheduler {
+
+    @Resource
+    private VueBuildConfig vueBuildConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final PriorityQueue<BuildTask> queue = new PriorityQueue<>(
+            Comparator.comparing((BuildTask task) -> task.priority).thenComparingLong(task -> task.sequence));
+
+    /**
+     * 项目目录 -> 排队中的任务
+     */
+    private final Map<Path, BuildTask> queuedTasks = new HashMap<>();
+
+    private final Map<BuildPriority, Timer> waitTimers = new EnumMap<>(BuildPriority.class);
+
+    private Timer buildTimer;
+
+    private long sequence;
+
+    private int running;
+
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("vue_build_queue_size", this, scheduler -> scheduler.queueSize())
+                .description("排队中的构建数")
+                .register(meterRegistry);
+        Gauge.builder("vue_build_running", this, scheduler -> scheduler.runningCount())
+                .description("执行中的构建数")
+                .register(meterRegistry);
+        for (BuildPriority priority : BuildPriority.values()) {
+            waitTimers.put(priority, Timer.builder("vue_build_wait_duration")
+                    .description("构建排队等待时间")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        buildTimer = Timer.builder("vue_build_duration")
+                .description("构建执行时间")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交构建任务
+     *
+     * @param projectDir 项目目录
+     * @param priority   优先级
+     * @param build      构建逻辑，返回是否成功
+     * @return 构建结果，排队已满时以 BusinessException 失败
+     */
+    public CompletableFuture<Boolean> submit(Path projectDir, BuildPriority priority, BooleanSupplier build) {
+        Path dir = projectDir.toAbsolutePath().normalize();
+        BuildTask task;
+        synchronized (this) {
+            BuildTask queued = queuedTasks.get(dir);
+            if (queued != null) {
+                if (priority.compareTo(queued.priority) < 0) {
+                    queue.remove(queued);
+                    queued.priority = priority;
+                    queue.add(queued);
+                }
+                return queued.result;
+            }
+            task = new BuildTask(dir, priority, build, sequence++);
+            if (running >= Math.max(1, vueBuildConfig.getWorkers())) {
+                if (queue.size() >= vueBuildConfig.getMaxQueueSize()) {
+                    log.warn("构建排队已满，拒绝构建: {}", dir);
+                    return CompletableFuture.failedFuture(
+                            new BusinessException(ErrorCode.TOO_MANY_REQUEST, "当前构建任务过多，请稍后再试"));
+                }
+                queue.add(task);
+                queuedTasks.put(dir, task);
+                log.info("构建进入排队: {}，优先级 {}，前方 {} 个任务", dir, priority, queue.size() - 1);
+                return task.result;
+            }
+            running++;
+        }
+        start(task);
+        return task.result;
+    }
+
+    synchronized int queueSize() {
+        return queue.size();
+    }
+
+    synchronized int runningCount() {
+        return running;
+    }
+
+    private void start(BuildTask task) {
+        Thread.ofVirtual().name("vue-builder-" + task.dir.getFileName()).start(() -> run(task));
+    }
+
+    private void run(BuildTask task) {
+        waitTimers.get(task.priority).record(Duration.ofNanos(System.nanoTime() - task.createdAt));
+        long start = System.nanoTime();
+        try {
+            task.result.complete(task.build.getAsBoolean());
+        } catch (Throwable e) {
+            log.error("构建执行异常: {}", task.dir, e);
+            task.result.completeExceptionally(e);
+        } finally {
+            buildTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            onFinished();
+        }
+    }
+
+    /**
+     * 一个构建结束，让出的位置交给队首任务
+     */
+    private void onFinished() {
+        BuildTask next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+            queuedTasks.remove(next.dir);
+        }
+        start(next);
+    }
+
+    private static final class BuildTask {
+
+        private final Path dir;
+
+        private final BooleanSupplier build;
+
+        private final long sequence;
+
+        private final long createdAt = System.nanoTime();
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        /**
+         * 由调度器锁保护
+         */
+        private BuildPriority priority;
+
+        private BuildTask(Path dir, BuildPriority priority, BooleanSupplier build, long sequence) {
+            this.dir = dir;
+            this.priority = priority;
+            this.build = build;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.zake.aicode.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.config.VueBuildConfig;
+import com.zake.aicode.constant.AppConstant;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Vue 项目依赖缓存
+ * 以 package.json + 锁文件 + 平台 的哈希为 key，在共享目录中保存一份安装好的 node_modules：
+ * - 命中时把缓存的 node_modules 以硬链接方式还原到项目中（只创建目录和链接，不复制文件内容）
+ * - 未命中时执行安装，安装成功后把项目的 node_modules 硬链接进缓存，供后续相同依赖的项目使用
+ * - 相同依赖的并发构建只安装一次，其余等待后直接命中
+ * 项目 node_modules 中的 .deps-key 记录当前依赖对应的 key，依赖未变化时连还原都不需要
+ * 没有锁文件的项目安装后会生成 package-lock.json，key 随之改变：安装结果同时登记在安装前后两个 key 下，
+ * 标记写入安装后的 key，项目下次构建直接跳过，其他没有锁文件的相同项目仍能按安装前的 key 命中
+ */
+@Slf4j
+@Component
+public class NodeModulesCache {
+
+    private static final String NODE_MODULES = "node_modules";
+
+    private static final String KEY_MARKER = ".deps-key";
+
+    private static final List<String> DEPENDENCY_FILES = List.of(
+            "package.json", "package-lock.json", "npm-shrinkwrap.json", "pnpm-lock.yaml", "yarn.lock"
+    );
+
+    /**
+     * 构建工具在 node_modules 下写入的缓存目录，不放入共享缓存
+     */
+    private static final Set<String> TRANSIENT_DIRS = Set.of(".vite", ".cache", ".vite-temp");
+
+    @Resource
+    private VueBuildConfig vueBuildConfig;
+
+    /**
+     * 同一依赖组合的安装串行执行
+     */
+    private final Cache<String, ReentrantLock> installLocks = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+
+    private final Path storeRoot;
+
+    public NodeModulesCache() {
+        this.storeRoot = Path.of(AppConstant.NODE_MODULES_CACHE_ROOT_DIR).toAbsolutePath().normalize();
+    }
+
+    NodeModulesCache(Path storeRoot, VueBuildConfig vueBuildConfig) {
+        this.storeRoot = storeRoot.toAbsolutePath().normalize();
+        this.vueBuildConfig = vueBuildConfig;
+    }
+
+    /**
+     * 准备项目依赖：优先使用缓存，未命中时调用 installer 安装并写入缓存
+     *
+     * @param projectDir 项目目录
+     * @param installer  实际执行安装的命令，返回是否成功
+     * @return 依赖是否就绪
+     */
+    public boolean install(Path projectDir, BooleanSupplier installer) {
+        if (!vueBuildConfig.isDependencyCacheEnabled()) {
+            return installer.getAsBoolean();
+        }
+        String key;
+        try {
+            key = computeKey(projectDir);
+        } catch (IOException e) {
+            log.warn("计算依赖缓存 key 失败，直接安装: {}", e.getMessage());
+            return installer.getAsBoolean();
+        }
+        Path nodeModules = projectDir.resolve(NODE_MODULES);
+        if (key.equals(readMarker(nodeModules))) {
+            log.info("依赖未变化，跳过安装: {}", projectDir);
+            return true;
+        }
+        ReentrantLock lock = installLocks.get(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            Path entry = storeRoot.resolve(key);
+            if (Files.isDirectory(entry) && restore(entry, nodeModules, key)) {
+                return true;
+            }
+            if (readMarker(nodeModules) != null) {
+                // 现有的 node_modules 与缓存共享文件，不能在其上增量安装
+                FileUtil.del(nodeModules);
+            }
+            long start = System.currentTimeMillis();
+            if (!installer.getAsBoolean()) {
+                return false;
+            }
+            String installedKey = computeKeyAfterInstall(projectDir, key);
+            log.info("依赖安装完成，耗时 {} ms，写入依赖缓存: {}", System.currentTimeMillis() - start, installedKey);
+            save(nodeModules, storeRoot.resolve(installedKey));
+            if (!installedKey.equals(key)) {
+                save(nodeModules, entry);
+            }
+            writeMarker(nodeModules, installedKey);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 依赖缓存 key：依赖声明文件内容 + 操作系统和架构（原生模块与平台相关）
+     */
+    String computeKey(Path projectDir) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update((System.getProperty("os.name") + "\0" + System.getProperty("os.arch") + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        for (String name : DEPENDENCY_FILES) {
+            Path file = projectDir.resolve(name);
+            if (Files.isRegularFile(file)) {
+                digest.update((name + "\0").getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 安装后重新计算 key（安装可能生成或更新锁文件），失败时沿用安装前的 key
+     */
+    private String computeKeyAfterInstall(Path projectDir, String key) {
+        try {
+            return computeKey(projectDir);
+        } catch (IOException e) {
+            log.warn("安装后计算依赖缓存 key 失败: {}", e.getMessage());
+            return key;
+        }
+    }
+
+    /**
+     * 把缓存的 node_modules 还原到项目中
+     */
+    private boolean restore(Path entry, Path nodeModules, String key) {
+        long start = System.currentTimeMillis();
+        Path staging = nodeModules.resolveSibling(NODE_MODULES + "." + UUID.randomUUID() + ".tmp");
+        try {
+            linkTree(entry, staging);
+            if (Files.exists(nodeModules)) {
+                FileUtil.del(nodeModules);
+            }
+            Files.move(staging, nodeModules, StandardCopyOption.ATOMIC_MOVE);
+            writeMarker(nodeModules, key);
+            // 记录最近一次使用，淘汰时保留常用的依赖组合
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            log.info("依赖缓存命中，还原 node_modules 耗时 {} ms: {}", System.currentTimeMillis() - start, key);
+            return true;
+        } catch (IOException e) {
+            log.warn("还原依赖缓存失败，改为安装: {}", e.getMessage());
+            FileUtil.del(staging);
+            return false;
+        }
+    }
+
+    /**
+     * 把安装好的 node_modules 写入缓存，先写临时目录再重命名
+     */
+    private void save(Path nodeModules, Path entry) {
+        if (!Files.isDirectory(nodeModules) || Files.isDirectory(entry)) {
+            return;
+        }
+        Path staging = entry.resolveSibling(entry.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(storeRoot);
+            linkTree(nodeModules, staging);
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+            evict(entry);
+        } catch (IOException e) {
+            log.warn("写入依赖缓存失败: {}", e.getMessage());
+            FileUtil.del(staging);
+        }
+    }
+
+    /**
+     * 按目录结构硬链接所有文件（无法硬链接时复制），保留符号链接（如 .bin 下的命令）
+     */
+    private static void linkTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(source) && TRANSIENT_DIRS.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path relative = source.relativize(file);
+                if (relative.toString().equals(KEY_MARKER)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path dest = target.resolve(relative.toString());
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(dest, Files.readSymbolicLink(file));
+                } else {
+                    try {
+                        Files.createLink(dest, file);
+                    } catch (IOException | UnsupportedOperationException e) {
+                        Files.copy(file, dest, StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 超出数量上限时删除最久未使用的依赖组合（已还原到项目中的文件不受影响）
+     */
+    private void evict(Path current) {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(storeRoot,
+                path -> Files.isDirectory(path) && !path.getFileName().toString().endsWith(".tmp"))) {
+            stream.forEach(entries::add);
+        } catch (IOException e) {
+            log.warn("清理依赖缓存失败: {}", e.getMessage());
+            return;
+        }
+        int excess = entries.size() - vueBuildConfig.getDependencyCacheMaxEntries();
+        if (excess <= 0) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(NodeModulesCache::lastModified));
+        for (Path entry : entries) {
+            if (excess <= 0) {
+                break;
+            }
+            if (!entry.equals(current)) {
+                FileUtil.del(entry);
+                excess--;
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readMarker(Path nodeModules) {
+        try {
+            return Files.readString(nodeModules.resolve(KEY_MARKER), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeMarker(Path nodeModules, String key) {
+        try {
+            Files.writeString(nodeModules.resolve(KEY_MARKER), key, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("写入依赖标记失败: {}", e.getMessage());
+        }
+    }
+}
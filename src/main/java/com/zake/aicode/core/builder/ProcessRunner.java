@@ -0,0 +1,123 @@
+package com.zake.aicode.core.builder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 子进程执行工具
+ * stdout、stderr 分别由虚拟线程持续读取并逐行回调，子进程不会因为管道写满而阻塞；
+ * 超时后终止整个进程树（npm 会再启动 node 子进程）。
+ */
+@Slf4j
+public final class ProcessRunner {
+
+    /**
+     * 进程结束后等待输出读取完毕的最长时间
+     */
+    private static final long DRAIN_TIMEOUT_MILLIS = 5000;
+
+    private ProcessRunner() {
+    }
+
+    /**
+     * 执行结果
+     *
+     * @param exitCode   退出码（超时时为 -1）
+     * @param timedOut   是否超时
+     * @param durationMs 耗时（毫秒）
+     */
+    public record Result(int exitCode, boolean timedOut, long durationMs) {
+
+        public boolean isSuccess() {
+            return !timedOut && exitCode == 0;
+        }
+    }
+
+    /**
+     * 执行命令并等待结束
+     *
+     * @param processBuilder 已设置命令、工作目录和环境变量的进程构建器
+     * @param timeout        超时时间
+     * @param output         输出行回调（stdout 和 stderr 交错，在读取线程上调用）
+     * @return 执行结果
+     */
+    public static Result run(ProcessBuilder processBuilder, Duration timeout, Consumer<String> output)
+            throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Process process = processBuilder
+                .redirectInput(ProcessBuilder.Redirect.PIPE)
+                .redirectOutput(ProcessBuilder.Redirect.PIPE)
+                .redirectError(ProcessBuilder.Redirect.PIPE)
+                .start();
+        // 不向子进程输入任何内容，避免等待输入的命令挂起
+        process.getOutputStream().close();
+        Thread stdout = drain(process.getInputStream(), output, "stdout-" + process.pid());
+        Thread stderr = drain(process.getErrorStream(), output, "stderr-" + process.pid());
+        boolean finished;
+        try {
+            finished = process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            destroyTree(process);
+            throw e;
+        }
+        if (!finished) {
+            destroyTree(process);
+        }
+        stdout.join(DRAIN_TIMEOUT_MILLIS);
+        stderr.join(DRAIN_TIMEOUT_MILLIS);
+        long duration = System.currentTimeMillis() - start;
+        return finished ? new Result(process.exitValue(), false, duration) : new Result(-1, true, duration);
+    }
+
+    /**
+     * 判断可执行文件是否在 PATH 中
+     */
+    static boolean isOnPath(String executable) {
+        String path = System.getenv("PATH");
+        if (StrUtil.isBlank(path)) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            if (StrUtil.isNotBlank(dir) && Files.isExecutable(Path.of(dir, executable))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Thread drain(InputStream in, Consumer<String> output, String name) {
+        return Thread.ofVirtual().name("process-" + name).start(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        output.accept(line);
+                    } catch (Exception e) {
+                        log.warn("处理进程输出失败: {}", e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                // 进程被终止时管道关闭
+                log.debug("读取进程输出结束: {}", e.getMessage());
+            }
+        });
+    }
+
+    static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
@@ -0,0 +1,353 @@
+package com.zake.aicode.core.builder;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.zake.aicode.config.VueBuildConfig;
+import com.zake.aicode.constant.AppConstant;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 常驻 Vite 构建服务
+ * 启动一个 Node.js 进程（build-daemon/vite-build-daemon.mjs），为每个项目保持 Vite watch 模式的构建实例，
+ * 源码变化后只重新构建受影响的模块，省去每次构建启动 npm、加载 Vite 和插件、全量解析依赖的开销。
+ * 构建服务只在收到请求时构建（请求由构建调度器发出，受并发数限制），且只采用请求到达后才开始读取源码的那一轮结果。
+ * 进程按需启动，异常退出后下次构建时重启；短时间内反复崩溃时暂停使用，由调用方回退到 npm run build。
+ */
+@Slf4j
+@Component
+public class ViteBuildDaemon {
+
+    private static final String SCRIPT_RESOURCE = "build-daemon/vite-build-daemon.mjs";
+
+    private static final long READY_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * 统计崩溃次数的时间窗口，窗口内崩溃达到上限后暂停使用
+     */
+    private static final long CRASH_WINDOW_MILLIS = 60_000;
+
+    private static final int MAX_CRASHES = 3;
+
+    private static final long DISABLE_MILLIS = 5 * 60_000;
+
+    @Resource
+    private VueBuildConfig vueBuildConfig;
+
+    private final Path daemonRoot;
+
+    /**
+     * 保护构建服务进程的启停和请求写入；启动时会等待进程就绪，构建运行在虚拟线程上，
+     * 使用 ReentrantLock 而不是 synchronized，等待期间不占用载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong requestIds = new AtomicLong();
+
+    /**
+     * 请求 id -> 等待结果的构建
+     */
+    private final Map<Long, PendingBuild> pending = new ConcurrentHashMap<>();
+
+    private final Deque<Long> recentCrashes = new ArrayDeque<>();
+
+    private Process process;
+
+    private BufferedWriter stdin;
+
+    private volatile long disabledUntil;
+
+    private volatile boolean shuttingDown;
+
+    /**
+     * 构建结果：UNAVAILABLE 表示构建服务无法完成构建（未启动、超时、不支持该项目），应改用命令行构建
+     */
+    public enum Outcome {
+        SUCCESS, FAILURE, UNAVAILABLE
+    }
+
+    private record PendingBuild(Process owner, Consumer<String> output, CompletableFuture<Outcome> result) {
+    }
+
+    public ViteBuildDaemon() {
+        this(Path.of(AppConstant.BUILD_DAEMON_ROOT_DIR));
+    }
+
+    ViteBuildDaemon(Path daemonRoot) {
+        this.daemonRoot = daemonRoot;
+    }
+
+    /**
+     * 构建服务当前是否可用
+     */
+    public boolean isAvailable() {
+        return vueBuildConfig.isDaemonEnabled() && !shuttingDown && System.currentTimeMillis() >= disabledUntil;
+    }
+
+    /**
+     * 通过构建服务构建项目，构建产物同步到项目的 dist 目录
+     *
+     * @param projectDir 项目根目录（依赖已安装）
+     * @param timeout    超时时间
+     * @param output     构建输出行回调
+     * @return 构建结果
+     */
+    public Outcome build(Path projectDir, Duration timeout, Consumer<String> output) {
+        if (!isAvailable()) {
+            return Outcome.UNAVAILABLE;
+        }
+        long id = requestIds.incrementAndGet();
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
+        try {
+            lock.lock();
+            try {
+                if (!ensureStarted()) {
+                    return Outcome.UNAVAILABLE;
+                }
+                pending.put(id, new PendingBuild(process, output, result));
+                JSONObject request = new JSONObject()
+                        .set("id", id)
+                        .set("type", "build")
+                        .set("projectDir", projectDir.toAbsolutePath().toString())
+                        .set("outDir", daemonRoot.resolve("out").resolve(projectDir.getFileName().toString())
+                                .toAbsolutePath().toString());
+                stdin.write(request.toString());
+                stdin.newLine();
+                stdin.flush();
+            } finally {
+                lock.unlock();
+            }
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            log.warn("向构建服务发送请求失败: {}", e.getMessage());
+            restart();
+            return Outcome.UNAVAILABLE;
+        } catch (TimeoutException e) {
+            // 构建实例可能卡住，重启构建服务释放资源
+            log.warn("构建服务超时（{} 秒），重启构建服务: {}", timeout.toSeconds(), projectDir);
+            restart();
+            return Outcome.UNAVAILABLE;
+        } catch (ExecutionException e) {
+            return Outcome.UNAVAILABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.UNAVAILABLE;
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    /**
+     * 确保构建服务进程已启动并就绪（调用方持有 lock）
+     */
+    private boolean ensureStarted() {
+        if (process != null && process.isAlive()) {
+            return true;
+        }
+        try {
+            Path script = extractScript();
+            List<String> command = new ArrayList<>();
+            if (vueBuildConfig.getProcessNiceness() > 0 && !isWindows() && ProcessRunner.isOnPath("nice")) {
+                command.addAll(List.of("nice", "-n", String.valueOf(vueBuildConfig.getProcessNiceness())));
+            }
+            command.addAll(List.of(isWindows() ? "node.exe" : "node", script.toString()));
+            ProcessBuilder processBuilder = new ProcessBuilder(command).directory(daemonRoot.toFile());
+            Map<String, String> environment = processBuilder.environment();
+            environment.put("BUILD_DAEMON_MAX_PROJECTS", String.valueOf(vueBuildConfig.getDaemonMaxProjects()));
+            environment.put("BUILD_DAEMON_IDLE_MS",
+                    String.valueOf(TimeUnit.MINUTES.toMillis(vueBuildConfig.getDaemonIdleMinutes())));
+            if (vueBuildConfig.getProcessMemoryMb() > 0) {
+                environment.put("NODE_OPTIONS", "--max-old-space-size=" + vueBuildConfig.getProcessMemoryMb());
+            }
+            Process started = processBuilder.start();
+            CompletableFuture<Void> startedReady = new CompletableFuture<>();
+            process = started;
+            stdin = new BufferedWriter(new OutputStreamWriter(started.getOutputStream(), StandardCharsets.UTF_8));
+            Thread.ofVirtual().name("vite-daemon-stdout-" + started.pid())
+                    .start(() -> readResponses(started, startedReady));
+            ProcessRunner.drain(started.getErrorStream(), line -> log.debug("[vite-daemon] {}", line),
+                    "vite-daemon-" + started.pid());
+            startedReady.get(READY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            log.info("Vite 构建服务已启动，pid: {}", started.pid());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopProcess();
+            return false;
+        } catch (Exception e) {
+            log.warn("Vite 构建服务启动失败，改用命令行构建: {}", e.getMessage());
+            stopProcess();
+            recordCrash();
+            return false;
+        }
+    }
+
+    /**
+     * 读取构建服务的响应并分发给对应的构建请求
+     */
+    private void readResponses(Process owner, CompletableFuture<Void> ownerReady) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(owner.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                dispatch(line, () -> ownerReady.complete(null));
+            }
+        } catch (IOException e) {
+            log.debug("读取构建服务输出结束: {}", e.getMessage());
+        }
+        // 启动阶段退出时让等待就绪的线程立即返回
+        ownerReady.completeExceptionally(new IOException("构建服务已退出"));
+        onExit(owner);
+    }
+
+    /**
+     * 处理一行响应消息
+     *
+     * @param line    响应内容
+     * @param onReady 收到就绪消息时的回调
+     */
+    private void dispatch(String line, Runnable onReady) {
+        JSONObject message;
+        try {
+            message = JSONUtil.parseObj(line);
+        } catch (Exception e) {
+            log.debug("[vite-daemon] {}", line);
+            return;
+        }
+        String type = message.getStr("type");
+        if ("ready".equals(type)) {
+            onReady.run();
+            return;
+        }
+        Long id = message.getLong("id");
+        PendingBuild pendingBuild = id == null ? null : pending.get(id);
+        if (pendingBuild == null) {
+            return;
+        }
+        if ("log".equals(type)) {
+            pendingBuild.output().accept(message.getStr("line", ""));
+        } else if ("result".equals(type)) {
+            if (message.getBool("success", false)) {
+                pendingBuild.result().complete(Outcome.SUCCESS);
+                return;
+            }
+            pendingBuild.output().accept("构建失败: " + message.getStr("error", ""));
+            pendingBuild.result().complete(message.getBool("fallback", false) ? Outcome.UNAVAILABLE : Outcome.FAILURE);
+        }
+    }
+
+    /**
+     * 构建服务进程退出：未完成的构建交给命令行重试
+     */
+    private void onExit(Process owner) {
+        pending.values().stream()
+                .filter(pendingBuild -> pendingBuild.owner() == owner)
+                .forEach(pendingBuild -> pendingBuild.result().completeExceptionally(new IOException("构建服务已退出")));
+        lock.lock();
+        try {
+            if (process != owner) {
+                // 主动终止（超时重启、应用关闭）
+                return;
+            }
+            process = null;
+            stdin = null;
+        } finally {
+            lock.unlock();
+        }
+        if (!shuttingDown) {
+            log.warn("Vite 构建服务异常退出，pid: {}", owner.pid());
+            recordCrash();
+        }
+    }
+
+    private void recordCrash() {
+        long now = System.currentTimeMillis();
+        synchronized (recentCrashes) {
+            recentCrashes.addLast(now);
+            while (!recentCrashes.isEmpty() && now - recentCrashes.peekFirst() > CRASH_WINDOW_MILLIS) {
+                recentCrashes.removeFirst();
+            }
+            if (recentCrashes.size() >= MAX_CRASHES) {
+                recentCrashes.clear();
+                disabledUntil = now + DISABLE_MILLIS;
+                log.warn("Vite 构建服务频繁崩溃，{} 分钟内改用命令行构建", TimeUnit.MILLISECONDS.toMinutes(DISABLE_MILLIS));
+            }
+        }
+    }
+
+    private void restart() {
+        lock.lock();
+        try {
+            stopProcess();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 终止构建服务进程（调用方持有 lock），下次构建时重新启动
+     */
+    private void stopProcess() {
+        Process current = process;
+        process = null;
+        stdin = null;
+        if (current != null) {
+            ProcessRunner.destroyTree(current);
+        }
+    }
+
+    /**
+     * 把服务脚本从 classpath 复制到构建服务目录（每次启动都覆盖，保证与应用版本一致）
+     */
+    private Path extractScript() throws IOException {
+        Files.createDirectories(daemonRoot);
+        Path script = daemonRoot.resolve("vite-build-daemon.mjs");
+        try (InputStream in = new ClassPathResource(SCRIPT_RESOURCE).getInputStream()) {
+            Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return script;
+    }
+
+    private boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("windows");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        lock.lock();
+        try {
+            stopProcess();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,95 +1,215 @@
 package com.zake.aicode.core.builder;
 
-import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.util.StrUtil;
+import com.zake.aicode.config.VueBuildConfig;
+import com.zake.aicode.core.resource.StaticResources;
+import com.zake.aicode.exception.BusinessException;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
 
 /**]
  * Vue项目构建器 npm install && npm run build
+ * 打包优先交给常驻的 Vite 构建服务增量构建，服务不可用时执行 npm run build
  */
 @Slf4j
 @Component
 public class VueProjectBuilder {
 
+    private static final boolean NICE_AVAILABLE = ProcessRunner.isOnPath("nice");
 
+    private static final boolean PRLIMIT_AVAILABLE = ProcessRunner.isOnPath("prlimit");
 
-        /**
-         * 异步构建项目（不阻塞主流程）
-         *
-         * @param projectPath 项目路径
-         */
-        public void buildProjectAsync(String projectPath) {
-            // 在单独的线程中执行构建，避免阻塞主流程
-            Thread.ofVirtual().name("vue-builder-" + System.currentTimeMillis()).start(() -> {
-                try {
-                    buildProject(projectPath);
-                } catch (Exception e) {
-                    log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage(), e);
-                }
-            });
-        }
+    @Resource
+    private NodeModulesCache nodeModulesCache;
+
+    @Resource
+    private VueBuildConfig vueBuildConfig;
+
+    @Resource
+    private BuildCoordinator buildCoordinator;
+
+    @Resource
+    private BuildScheduler buildScheduler;
 
+    @Resource
+    private BuildLogManager buildLogManager;
 
+    @Resource
+    private ViteBuildDaemon viteBuildDaemon;
 
+    /**
+     * 异步构建项目（不阻塞主流程），以后台预览优先级排队
+     *
+     * @param projectPath 项目路径
+     */
+    public void buildProjectAsync(String projectPath) {
+        submitBuild(projectPath, BuildPriority.PREVIEW).whenComplete((success, e) -> {
+            if (e != null) {
+                log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage());
+            }
+        });
+    }
 
     /**
-     * 构建 Vue 项目
+     * 构建 Vue 项目（用户发起的部署，最高优先级）
      *
      * @param projectPath 项目根目录路径
      * @return 是否构建成功
      */
     public boolean buildProject(String projectPath) {
+        return buildProject(projectPath, BuildPriority.DEPLOY);
+    }
+
+    /**
+     * 构建 Vue 项目并等待结果
+     *
+     * @param projectPath 项目根目录路径
+     * @param priority    构建优先级
+     * @return 是否构建成功
+     */
+    public boolean buildProject(String projectPath, BuildPriority priority) {
+        try {
+            return submitBuild(projectPath, priority).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            log.error("构建 Vue 项目时发生异常: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 提交构建：源码未变化时直接返回，否则交给构建调度器排队执行
+     */
+    private CompletableFuture<Boolean> submitBuild(String projectPath, BuildPriority priority) {
         File projectDir = new File(projectPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) {
             log.error("项目目录不存在: {}", projectPath);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         // 检查 package.json 是否存在
         File packageJson = new File(projectDir, "package.json");
         if (!packageJson.exists()) {
             log.error("package.json 文件不存在: {}", packageJson.getAbsolutePath());
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
-        log.info("开始构建 Vue 项目: {}", projectPath);
-        // 执行 npm install
-        if (!executeNpmInstall(projectDir)) {
-            log.error("npm install 执行失败");
-            return false;
+        Path dir = projectDir.toPath();
+        // 已构建过的源码不占用构建名额（部署紧跟在预览构建之后时直接返回）
+        if (buildCoordinator.isUpToDate(dir)) {
+            log.info("源码未变化，跳过构建: {}", projectPath);
+            return CompletableFuture.completedFuture(true);
         }
-        // 执行 npm run build
-        if (!executeNpmBuild(projectDir)) {
-            log.error("npm run build 执行失败");
-            return false;
+        // 同一项目的并发构建合并为一次
+        return buildScheduler.submit(dir, priority, () -> buildCoordinator.build(dir, () -> doBuildProject(projectDir)));
+    }
+
+    /**
+     * 执行构建：安装依赖、打包、预压缩构建产物，输出和各阶段耗时写入构建日志
+     */
+    private boolean doBuildProject(File projectDir) {
+        String projectPath = projectDir.getPath();
+        log.info("开始构建 Vue 项目: {}", projectPath);
+        BuildLog buildLog = buildLogManager.start(projectDir.toPath());
+        boolean success = false;
+        try {
+            // 执行 npm install（依赖缓存命中时直接还原 node_modules）
+            if (!runPhase(buildLog, "install",
+                    () -> nodeModulesCache.install(projectDir.toPath(), () -> executeNpmInstall(projectDir, buildLog)))) {
+                log.error("npm install 执行失败");
+                return false;
+            }
+            // 打包（构建服务增量构建，不可用时执行 npm run build）
+            if (!runPhase(buildLog, "build", () -> executeBuild(projectDir, buildLog))) {
+                log.error("npm run build 执行失败");
+                return false;
+            }
+            // 验证 dist 目录是否生成
+            File distDir = new File(projectDir, "dist");
+            if (!distDir.exists()) {
+                log.error("构建完成但 dist 目录未生成: {}", distDir.getAbsolutePath());
+                buildLog.append("构建完成但 dist 目录未生成");
+                return false;
+            }
+            // 构建产物在预览时直接发送压缩版本
+            runPhase(buildLog, "precompress", () -> {
+                StaticResources.precompressDirectory(distDir.toPath());
+                StaticResources.invalidate(projectDir.toPath());
+                return true;
+            });
+            log.info("Vue 项目构建成功，dist 目录: {}", distDir.getAbsolutePath());
+            success = true;
+            return true;
+        } finally {
+            buildLog.finish(success);
         }
-        // 验证 dist 目录是否生成
-        File distDir = new File(projectDir, "dist");
-        if (!distDir.exists()) {
-            log.error("构建完成但 dist 目录未生成: {}", distDir.getAbsolutePath());
-            return false;
+    }
+
+    /**
+     * 执行构建阶段并记录耗时
+     */
+    private boolean runPhase(BuildLog buildLog, String phase, BooleanSupplier action) {
+        long start = System.currentTimeMillis();
+        boolean success = false;
+        try {
+            success = action.getAsBoolean();
+            return success;
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            log.info("构建阶段 {} {}，耗时 {} ms", phase, success ? "成功" : "失败", duration);
+            buildLogManager.recordPhase(buildLog, phase, duration, success);
         }
-        log.info("Vue 项目构建成功，dist 目录: {}", distDir.getAbsolutePath());
-        return true;
     }
 
     /**
      * 执行 npm install 命令
      */
-    private boolean executeNpmInstall(File projectDir) {
+    private boolean executeNpmInstall(File projectDir, BuildLog buildLog) {
         log.info("执行 npm install...");
-        String command = String.format("%s install", buildCommand("npm"));
-        return executeCommand(projectDir, command, 300); // 5分钟超时
+        StringBuilder command = new StringBuilder(buildCommand("npm")).append(" install --no-audit --no-fund");
+        // 离线模式只使用本地缓存，否则优先使用本地缓存
+        command.append(vueBuildConfig.isOffline() ? " --offline" : " --prefer-offline");
+        if (StrUtil.isNotBlank(vueBuildConfig.getRegistry())) {
+            command.append(" --registry ").append(vueBuildConfig.getRegistry().trim());
+        }
+        return executeCommand(projectDir, command.toString(), 300, buildLog); // 5分钟超时
+    }
+
+    /**
+     * 打包项目：优先使用常驻构建服务，服务不可用或不支持该项目时回退到 npm run build
+     */
+    private boolean executeBuild(File projectDir, BuildLog buildLog) {
+        if (viteBuildDaemon.isAvailable()) {
+            buildLog.append("> vite build (构建服务)");
+            ViteBuildDaemon.Outcome outcome = viteBuildDaemon.build(projectDir.toPath(), Duration.ofSeconds(180),
+                    buildLog::append);
+            if (outcome != ViteBuildDaemon.Outcome.UNAVAILABLE) {
+                return outcome == ViteBuildDaemon.Outcome.SUCCESS;
+            }
+            log.warn("构建服务未能完成构建，改用 npm run build: {}", projectDir.getPath());
+            buildLog.append("构建服务未能完成构建，改用 npm run build");
+        }
+        return executeNpmBuild(projectDir, buildLog);
     }
 
     /**
      * 执行 npm run build 命令
      */
-    private boolean executeNpmBuild(File projectDir) {
+    private boolean executeNpmBuild(File projectDir, BuildLog buildLog) {
         log.info("执行 npm run build...");
         String command = String.format("%s run build", buildCommand("npm"));
-        return executeCommand(projectDir, command, 180); // 3分钟超时
+        return executeCommand(projectDir, command, 180, buildLog); // 3分钟超时
     }
 
     /**
@@ -114,39 +234,77 @@ public class VueProjectBuilder {
     }
 
     /**
-     * 执行命令
+     * 执行命令，输出逐行写入构建日志
      *
      * @param workingDir     工作目录
      * @param command        命令字符串
      * @param timeoutSeconds 超时时间（秒）
+     * @param buildLog       构建日志
      * @return 是否执行成功
      */
-    private boolean executeCommand(File workingDir, String command, int timeoutSeconds) {
+    private boolean executeCommand(File workingDir, String command, int timeoutSeconds, BuildLog buildLog) {
         try {
             log.info("在目录 {} 中执行命令: {}", workingDir.getAbsolutePath(), command);
-            Process process = RuntimeUtil.exec(
-                    null,
-                    workingDir,
-                    command.split("\\s+") // 命令分割为数组
-            );
-            // 等待进程完成，设置超时
-            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            if (!finished) {
-                log.error("命令执行超时（{}秒），强制终止进程", timeoutSeconds);
-                process.destroyForcibly();
+            buildLog.append("> " + command);
+            ProcessBuilder processBuilder = new ProcessBuilder(limitCommand(List.of(command.split("\\s+")))) // 命令分割为数组
+                    .directory(workingDir);
+            limitNodeMemory(processBuilder.environment());
+            // 输出由虚拟线程持续读取，子进程不会因为管道写满而挂起
+            ProcessRunner.Result result = ProcessRunner.run(processBuilder, Duration.ofSeconds(timeoutSeconds),
+                    buildLog::append);
+            if (result.timedOut()) {
+                log.error("命令执行超时（{}秒），已强制终止进程", timeoutSeconds);
+                buildLog.append("命令执行超时（" + timeoutSeconds + " 秒），已终止");
                 return false;
             }
-            int exitCode = process.exitValue();
-            if (exitCode == 0) {
-                log.info("命令执行成功: {}", command);
+            if (result.isSuccess()) {
+                log.info("命令执行成功: {}，耗时 {} ms", command, result.durationMs());
                 return true;
             } else {
-                log.error("命令执行失败，退出码: {}", exitCode);
+                log.error("命令执行失败，退出码: {}", result.exitCode());
+                buildLog.append("命令执行失败，退出码: " + result.exitCode());
                 return false;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("执行命令被中断: {}", command);
+            return false;
         } catch (Exception e) {
             log.error("执行命令失败: {}, 错误信息: {}", command, e.getMessage());
+            buildLog.append("执行命令失败: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * 限制构建子进程的资源（Linux/macOS）：
+     * - nice 降低 CPU 调度优先级，构建期间接口请求优先
+     * - prlimit 限制 CPU 时间，失控的构建会被系统终止
+     */
+    private List<String> limitCommand(List<String> command) {
+        if (isWindows()) {
+            return command;
+        }
+        List<String> limited = new ArrayList<>();
+        if (vueBuildConfig.getProcessNiceness() > 0 && NICE_AVAILABLE) {
+            limited.addAll(List.of("nice", "-n", String.valueOf(vueBuildConfig.getProcessNiceness())));
+        }
+        if (vueBuildConfig.getProcessCpuSeconds() > 0 && PRLIMIT_AVAILABLE) {
+            limited.addAll(List.of("prlimit", "--cpu=" + vueBuildConfig.getProcessCpuSeconds()));
+        }
+        limited.addAll(command);
+        return limited;
+    }
+
+    /**
+     * 限制 Node.js 堆内存（子进程继承 NODE_OPTIONS）
+     */
+    private void limitNodeMemory(Map<String, String> environment) {
+        if (vueBuildConfig.getProcessMemoryMb() <= 0) {
+            return;
+        }
+        String option = "--max-old-space-size=" + vueBuildConfig.getProcessMemoryMb();
+        String existing = environment.get("NODE_OPTIONS");
+        environment.put("NODE_OPTIONS", StrUtil.isBlank(existing) ? option : existing + " " + option);
+    }
 }
@@ -0,0 +1,215 @@
+package com.zake.aicode.core.cache;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.zake.aicode.ai.guardrail.PromptSafetyInputGuardrail;
+import com.zake.aicode.config.ResponseCacheConfig;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.EvictionMode;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 生成结果缓存（精确匹配）
+ * 只对首轮对话（该应用没有对话记忆）的 HTML、多文件生成生效：
+ * key 为 规范化提示词 + 代码生成类型 + 系统提示词摘要，命中时把缓存的输出切成片段回放，
+ * 仍然走正常的流式解析保存和对话历史记录，并补写对话记忆，后续轮次与真实调用一致。
+ * 只有代码保存成功的生成结果才写入缓存，拒答或没有可用代码的输出不会被回放给其他用户。
+ * 缓存存放在 Redis 中，条目数有上限，超出按 LRU 淘汰。
+ */
+@Slf4j
+@Component
+public class GenerationResponseCache {
+
+    private static final String CACHE_NAME = "generation_response_cache";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 支持缓存的类型及其系统提示词，与 AiCodeGeneratorService 上的声明保持一致
+     */
+    private static final Map<CodeGenTypeEnum, String> SYSTEM_PROMPT_RESOURCES = Map.of(
+            CodeGenTypeEnum.HTML, "prompt/codegen-html-system-prompt.txt",
+            CodeGenTypeEnum.MULTI_FILE, "prompt/codegen-multi-file-system-prompt.txt"
+    );
+
+    @Resource
+    private ResponseCacheConfig responseCacheConfig;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private RedisChatMemoryStore redisChatMemoryStore;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 回放跳过了模型调用上的输入护轨，命中时单独校验
+     */
+    private final PromptSafetyInputGuardrail promptSafetyInputGuardrail = new PromptSafetyInputGuardrail();
+
+    private final Map<CodeGenTypeEnum, String> systemPrompts = new EnumMap<>(CodeGenTypeEnum.class);
+
+    private final Map<CodeGenTypeEnum, String> systemPromptHashes = new EnumMap<>(CodeGenTypeEnum.class);
+
+    private final Map<String, Counter> requestCounters = new HashMap<>();
+
+    private RMapCache<String, String> cache;
+
+    @PostConstruct
+    public void init() {
+        if (!responseCacheConfig.isEnabled()) {
+            return;
+        }
+        SYSTEM_PROMPT_RESOURCES.forEach((codeGenType, resource) -> {
+            String systemPrompt = ResourceUtil.readUtf8Str(resource);
+            systemPrompts.put(codeGenType, systemPrompt);
+            systemPromptHashes.put(codeGenType, DigestUtil.sha256Hex(systemPrompt));
+        });
+        cache = redissonClient.getMapCache(CACHE_NAME, StringCodec.INSTANCE);
+        cache.setMaxSize(responseCacheConfig.getMaxEntries(), EvictionMode.LRU);
+        for (String result : List.of("hit", "miss", "bypass")) {
+            requestCounters.put(result, Counter.builder("generation_response_cache_requests_total")
+                    .description("生成结果缓存查询次数")
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 优先回放缓存的生成结果，未命中时调用模型，代码保存成功后写入缓存
+     *
+     * @param appId       应用 ID
+     * @param codeGenType 代码生成类型
+     * @param userMessage 用户提示词
+     * @param generator   实际调用模型的生成流
+     * @param saver       解析保存生成流，代码保存成功后调用传入的回调
+     * @return 生成流
+     */
+    public Flux<String> withCache(long appId, CodeGenTypeEnum codeGenType, String userMessage,
+                                  Supplier<Flux<String>> generator,
+                                  BiFunction<Flux<String>, Runnable, Flux<String>> saver) {
+        Runnable noop = () -> {
+        };
+        if (cache == null || !systemPromptHashes.containsKey(codeGenType)) {
+            return saver.apply(generator.get(), noop);
+        }
+        if (!isFirstTurn(appId)) {
+            // 非首轮对话，输出依赖上下文，不能复用
+            requestCounters.get("bypass").increment();
+            return saver.apply(generator.get(), noop);
+        }
+        String key = buildKey(codeGenType, systemPromptHashes.get(codeGenType), userMessage);
+        String cached = null;
+        try {
+            cached = cache.get(key);
+        } catch (Exception e) {
+            log.warn("读取生成结果缓存失败: {}", e.getMessage());
+        }
+        if (cached != null && promptSafetyInputGuardrail.validate(UserMessage.from(userMessage)).isSuccess()) {
+            requestCounters.get("hit").increment();
+            log.info("应用 {} 命中生成结果缓存，回放 {} 个字符", appId, cached.length());
+            String response = cached;
+            return saver.apply(Flux.fromIterable(splitChunks(response, responseCacheConfig.getReplayChunkChars()))
+                    .doOnComplete(() -> rememberTurn(appId, codeGenType, userMessage, response)), noop);
+        }
+        requestCounters.get("miss").increment();
+        int maxChars = responseCacheConfig.getMaxResponseChars();
+        StringBuilder response = new StringBuilder();
+        boolean[] overflow = {false};
+        Flux<String> collected = generator.get()
+                .doOnNext(chunk -> {
+                    if (overflow[0]) {
+                        return;
+                    }
+                    if (response.length() + chunk.length() > maxChars) {
+                        // 超长结果不缓存，释放已收集的内容
+                        overflow[0] = true;
+                        response.setLength(0);
+                        response.trimToSize();
+                        return;
+                    }
+                    response.append(chunk);
+                });
+        return saver.apply(collected, () -> {
+            if (!overflow[0] && !response.isEmpty()) {
+                cache.fastPutAsync(key, response.toString(), responseCacheConfig.getTtlHours(), TimeUnit.HOURS);
+            }
+        });
+    }
+
+    /**
+     * 该应用是否还没有对话记忆（首轮对话）
+     */
+    boolean isFirstTurn(long appId) {
+        return redisChatMemoryStore.getMessages(appId).isEmpty();
+    }
+
+    /**
+     * 回放不经过模型，需要补写对话记忆（与模型调用后的记忆内容一致）
+     */
+    void rememberTurn(long appId, CodeGenTypeEnum codeGenType, String userMessage, String response) {
+        try {
+            redisChatMemoryStore.updateMessages(appId, List.of(
+                    SystemMessage.from(systemPrompts.get(codeGenType)),
+                    UserMessage.from(userMessage),
+                    AiMessage.from(response)
+            ));
+        } catch (Exception e) {
+            log.error("应用 {} 补写对话记忆失败: {}", appId, e.getMessage());
+        }
+    }
+
+    /**
+     * 构建缓存 key：规范化提示词（Unicode 兼容规范化、合并空白）+ 类型 + 系统提示词摘要
+     */
+    static String buildKey(CodeGenTypeEnum codeGenType, String systemPromptHash, String userMessage) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(userMessage, Normalizer.Form.NFKC))
+                .replaceAll(" ")
+                .trim();
+        return codeGenType.getValue() + ":" + DigestUtil.sha256Hex(systemPromptHash + "\n" + normalized);
+    }
+
+    /**
+     * 切分回放片段，不拆开代理对
+     */
+    static List<String> splitChunks(String text, int chunkChars) {
+        int size = Math.max(1, chunkChars);
+        List<String> chunks = new ArrayList<>(text.length() / size + 1);
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + size);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+}
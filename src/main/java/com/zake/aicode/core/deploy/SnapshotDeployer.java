@@ -0,0 +1,258 @@
+package com.zake.aicode.core.deploy;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 快照式部署
+ * 每次部署在快照目录下生成一份完整快照，部署目录下的 deployKey 是指向当前快照的符号链接：
+ * 1. 逐个文件计算内容哈希（大小和修改时间未变的文件沿用上次的哈希），与上一个快照相同的内容直接硬链接，只写入变化的文件
+ * 2. 快照在临时目录中生成完毕后再重命名，最后原子替换符号链接，访问者不会看到复制了一半的站点
+ * 3. 保留当前和上一个快照，更早的快照随部署清理
+ * 不支持符号链接的环境（如未开启开发者模式的 Windows）退回为直接复制到部署目录
+ */
+@Slf4j
+@Component
+public class SnapshotDeployer {
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final String STAGING_SUFFIX = ".staging";
+
+    /**
+     * 同一个 deployKey 的部署串行执行
+     */
+    private final Cache<String, ReentrantLock> deployLocks = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+
+    private final Path deployRoot;
+
+    private final Path snapshotRoot;
+
+    public SnapshotDeployer() {
+        this(Path.of(AppConstant.CODE_DEPLOY_ROOT_DIR), Path.of(AppConstant.CODE_DEPLOY_SNAPSHOT_ROOT_DIR));
+    }
+
+    SnapshotDeployer(Path deployRoot, Path snapshotRoot) {
+        this.deployRoot = deployRoot.toAbsolutePath().normalize();
+        this.snapshotRoot = snapshotRoot.toAbsolutePath().normalize();
+    }
+
+    /**
+     * 部署结果
+     *
+     * @param snapshot     当前快照目录
+     * @param linkedFiles  复用上一个快照的文件数
+     * @param writtenFiles 新写入的文件数
+     */
+    public record DeployResult(Path snapshot, int linkedFiles, int writtenFiles) {
+    }
+
+    private record ManifestEntry(String path, String hash, long size, long lastModified) {
+    }
+
+    /**
+     * 部署目录内容
+     *
+     * @param sourceDir 要部署的目录（原生代码目录或 Vue 项目的 dist 目录）
+     * @param deployKey 部署标识
+     * @return 部署结果
+     */
+    public DeployResult deploy(File sourceDir, String deployKey) {
+        ReentrantLock lock = deployLocks.get(deployKey, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            return doDeploy(sourceDir.toPath().toAbsolutePath().normalize(), deployKey);
+        } catch (IOException e) {
+            log.error("应用部署失败: {}", deployKey, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "应用部署失败：" + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DeployResult doDeploy(Path sourceDir, String deployKey) throws IOException {
+        long start = System.currentTimeMillis();
+        Path snapshotsDir = snapshotRoot.resolve(deployKey);
+        Path link = deployRoot.resolve(deployKey);
+        Files.createDirectories(snapshotsDir);
+        Files.createDirectories(deployRoot);
+        Path previous = currentSnapshot(link);
+        Map<String, ManifestEntry> previousEntries = previous == null ? Map.of() : readManifest(manifestOf(previous));
+        Map<String, Path> previousFilesByHash = new HashMap<>();
+        previousEntries.values().forEach(entry -> previousFilesByHash.putIfAbsent(entry.hash(), previous.resolve(entry.path())));
+
+        // 1. 在临时目录中生成快照
+        String snapshotId = System.currentTimeMillis() + "_" + RandomUtil.randomString(6);
+        Path staging = snapshotsDir.resolve(snapshotId + STAGING_SUFFIX);
+        List<ManifestEntry> entries = new ArrayList<>();
+        int linkedFiles = 0;
+        int writtenFiles = 0;
+        try {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(sourceDir)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+            Files.createDirectories(staging);
+            for (Path file : files) {
+                String relativePath = sourceDir.relativize(file).toString().replace(File.separatorChar, '/');
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long lastModified = attrs.lastModifiedTime().toMillis();
+                ManifestEntry old = previousEntries.get(relativePath);
+                String hash = old != null && old.size() == attrs.size() && old.lastModified() == lastModified
+                        ? old.hash()
+                        : DigestUtil.sha256Hex(file.toFile());
+                Path target = staging.resolve(relativePath);
+                Files.createDirectories(target.getParent());
+                Path reusable = previousFilesByHash.get(hash);
+                if (reusable != null && tryLink(target, reusable)) {
+                    linkedFiles++;
+                } else {
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                    writtenFiles++;
+                }
+                entries.add(new ManifestEntry(relativePath, hash, attrs.size(), lastModified));
+            }
+            // 2. 快照完整后再改为正式名称
+            Path snapshot = snapshotsDir.resolve(snapshotId);
+            Files.move(staging, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            writeManifest(manifestOf(snapshot), entries);
+            // 3. 原子切换
+            switchTo(link, snapshot);
+            removeStaleSnapshots(snapshotsDir, snapshot, previous);
+            log.info("应用部署完成: {} -> {}，复用 {} 个文件，写入 {} 个文件，耗时 {} ms", deployKey, snapshot,
+                    linkedFiles, writtenFiles, System.currentTimeMillis() - start);
+            return new DeployResult(snapshot, linkedFiles, writtenFiles);
+        } finally {
+            if (Files.exists(staging)) {
+                FileUtil.del(staging);
+            }
+        }
+    }
+
+    /**
+     * 读取部署目录当前指向的快照，没有时返回 null
+     */
+    private Path currentSnapshot(Path link) throws IOException {
+        if (!Files.isSymbolicLink(link)) {
+            return null;
+        }
+        Path target = link.getParent().resolve(Files.readSymbolicLink(link)).normalize();
+        return Files.isDirectory(target) ? target : null;
+    }
+
+    /**
+     * 硬链接上一个快照中内容相同的文件，失败时（跨文件系统等）返回 false 由调用方复制
+     */
+    private boolean tryLink(Path target, Path existing) {
+        try {
+            Files.createLink(target, existing);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("硬链接失败，改为复制: {}, {}", existing, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 原子替换符号链接
+     */
+    private void switchTo(Path link, Path snapshot) throws IOException {
+        Path tempLink = link.resolveSibling("." + link.getFileName() + "." + UUID.randomUUID() + ".link");
+        try {
+            Files.createSymbolicLink(tempLink, snapshot);
+        } catch (FileSystemException | UnsupportedOperationException e) {
+            log.warn("当前环境不支持符号链接，直接复制到部署目录: {}", e.getMessage());
+            FileUtil.copyContent(snapshot.toFile(), link.toFile(), true);
+            return;
+        }
+        try {
+            if (Files.isDirectory(link, LinkOption.NOFOLLOW_LINKS)) {
+                // 旧版本直接复制生成的部署目录，首次切换时删除
+                FileUtil.del(link);
+            }
+            Files.move(tempLink, link, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempLink);
+            throw e;
+        }
+    }
+
+    /**
+     * 删除当前和上一个快照之外的快照（包括异常退出时遗留的临时目录）
+     */
+    private void removeStaleSnapshots(Path snapshotsDir, Path current, Path previous) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshotsDir)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().endsWith(MANIFEST_SUFFIX)
+                        || path.equals(current) || path.equals(previous)) {
+                    continue;
+                }
+                FileUtil.del(path);
+                Files.deleteIfExists(manifestOf(path));
+            }
+        } catch (IOException e) {
+            log.warn("清理旧部署快照失败: {}", e.getMessage());
+        }
+    }
+
+    private static Path manifestOf(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + MANIFEST_SUFFIX);
+    }
+
+    private static Map<String, ManifestEntry> readManifest(Path manifest) {
+        Map<String, ManifestEntry> entries = new HashMap<>();
+        if (!Files.isRegularFile(manifest)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 4);
+                if (parts.length == 4) {
+                    entries.put(parts[3], new ManifestEntry(parts[3], parts[0], Long.parseLong(parts[1]),
+                            Long.parseLong(parts[2])));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 清单损坏时不复用，完整写入一次
+            log.warn("读取部署清单失败: {}, {}", manifest, e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private static void writeManifest(Path manifest, List<ManifestEntry> entries) throws IOException {
+        List<String> lines = new ArrayList<>(entries.size());
+        for (ManifestEntry entry : entries) {
+            lines.add(entry.hash() + "\t" + entry.size() + "\t" + entry.lastModified() + "\t" + entry.path());
+        }
+        Files.write(manifest, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,7 @@
 package com.zake.aicode.core.handler;
 
+import com.zake.aicode.ai.model.message.AiResponseMessage;
+import com.zake.aicode.ai.model.message.StreamMessage;
 import com.zake.aicode.model.entity.User;
 import com.zake.aicode.model.enums.ChatHistoryMessageTypeEnum;
 import com.zake.aicode.service.ChatHistoryService;
@@ -23,11 +25,14 @@ public class SimpleTextStreamHandler {
      * @param loginUser          登录用户
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
+    public Flux<String> handle(Flux<StreamMessage> originFlux,
                                ChatHistoryService chatHistoryService,
                                long appId, User loginUser) {
         StringBuilder aiResponseBuilder = new StringBuilder();
         return originFlux
+                // 简单流中只有 AI 响应消息
+                .ofType(AiResponseMessage.class)
+                .map(AiResponseMessage::getData)
                 .map(chunk -> {
                     // 收集AI响应内容
                     aiResponseBuilder.append(chunk);
@@ -36,12 +41,12 @@ public class SimpleTextStreamHandler {
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加AI消息到对话历史
                     String aiResponse = aiResponseBuilder.toString();
-                    chatHistoryService.addChatMessage(appId, aiResponse, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                    chatHistoryService.addChatMessageAsync(appId, aiResponse, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
                 })
                 .doOnError(error -> {
                     // 如果AI回复失败，也要记录错误消息
                     String errorMessage = "AI回复失败: " + error.getMessage();
-                    chatHistoryService.addChatMessage(appId, errorMessage, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
+                    chatHistoryService.addChatMessageAsync(appId, errorMessage, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
                 });
     }
 }
\ No newline at end of file
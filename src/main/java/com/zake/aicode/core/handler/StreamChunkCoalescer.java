@@ -0,0 +1,121 @@
+package com.zake.aicode.core.handler;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式片段合并器
+ * 将逐 token 的小片段按大小或时间合并成较大的片段再下发，减少 SSE 帧数和 flush 次数：
+ * - 缓冲内容达到 maxChars 个字符时立即下发
+ * - 缓冲中最早的内容等待超过 maxDelay 时下发
+ * - 第一个片段直接下发，不增加首字延迟
+ * - 流结束或出错时先下发剩余内容
+ */
+public class StreamChunkCoalescer {
+
+    private StreamChunkCoalescer() {
+    }
+
+    /**
+     * 合并流式片段
+     *
+     * @param source   原始流
+     * @param maxChars 单帧最大字符数（达到即下发）
+     * @param maxDelay 最大等待时间
+     * @return 合并后的流
+     */
+    public static Flux<String> coalesce(Flux<String> source, int maxChars, Duration maxDelay) {
+        if (maxChars <= 1 || maxDelay == null || maxDelay.isZero() || maxDelay.isNegative()) {
+            // 未开启合并
+            return source;
+        }
+        return Flux.create(sink -> {
+            Coalescer coalescer = new Coalescer(sink, maxChars, maxDelay.toMillis());
+            // 手动订阅不会传递下游的订阅上下文，需要显式传递
+            Disposable upstream = source.contextWrite(sink.contextView())
+                    .subscribe(coalescer::add, coalescer::error, coalescer::complete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                coalescer.cancelTimer();
+            });
+        });
+    }
+
+    /**
+     * 单个订阅的合并状态
+     * 上游线程和定时器线程都会下发数据，统一在锁内下发以保证顺序
+     */
+    private static final class Coalescer {
+
+        private final FluxSink<String> sink;
+
+        private final int maxChars;
+
+        private final long maxDelayMillis;
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        private Disposable timer;
+
+        private boolean firstEmitted;
+
+        private Coalescer(FluxSink<String> sink, int maxChars, long maxDelayMillis) {
+            this.sink = sink;
+            this.maxChars = maxChars;
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        synchronized void add(String chunk) {
+            if (!firstEmitted) {
+                firstEmitted = true;
+                sink.next(chunk);
+                return;
+            }
+            buffer.append(chunk);
+            if (buffer.length() >= maxChars) {
+                flush();
+            } else if (timer == null) {
+                timer = Schedulers.parallel().schedule(this::onTimer, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void complete() {
+            flush();
+            sink.complete();
+        }
+
+        synchronized void error(Throwable error) {
+            flush();
+            sink.error(error);
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+            buffer.setLength(0);
+        }
+
+        private synchronized void onTimer() {
+            timer = null;
+            flush();
+        }
+
+        private void flush() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+            if (!buffer.isEmpty()) {
+                sink.next(buffer.toString());
+                buffer.setLength(0);
+            }
+        }
+    }
+}
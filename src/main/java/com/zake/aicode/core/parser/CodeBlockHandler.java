@@ -0,0 +1,35 @@
+package com.zake.aicode.core.parser;
+
+/**
+ * 流式代码块回调接口
+ * 由 {@link StreamingCodeParser} 在识别到代码块边界和内容时回调
+ * 注意：传入的 CharSequence 会被解析器复用，只在回调期间有效
+ */
+public interface CodeBlockHandler {
+
+    /**
+     * 代码块之外的普通文本
+     *
+     * @param text 文本片段
+     */
+    void onText(CharSequence text);
+
+    /**
+     * 代码块开始（已读完 ```lang 这一行）
+     *
+     * @param language 代码块语言（小写，可能为空字符串）
+     */
+    void onBlockStart(String language);
+
+    /**
+     * 代码块内容片段
+     *
+     * @param content 内容片段
+     */
+    void onBlockContent(CharSequence content);
+
+    /**
+     * 代码块结束（遇到结束的 ```，或流结束时代码块仍未闭合）
+     */
+    void onBlockEnd();
+}
@@ -0,0 +1,133 @@
+package com.zake.aicode.core.parser;
+
+/**
+ * 流式代码块解析器（状态机）
+ * 逐个消费 AI 输出的片段，识别 ```lang ... ``` 代码块，支持围栏跨片段拆分，
+ * 识别结果通过 {@link CodeBlockHandler} 推送，不保存完整响应。
+ * 非线程安全，一个实例只对应一次流式生成。
+ */
+public class StreamingCodeParser {
+
+    private static final int FENCE_LENGTH = 3;
+
+    /**
+     * 代码块语言行最大长度，超出部分直接丢弃
+     */
+    private static final int MAX_HEADER_LENGTH = 32;
+
+    private enum State {
+        /**
+         * 代码块之外
+         */
+        TEXT,
+        /**
+         * 读取 ``` 之后的语言标识
+         */
+        HEADER,
+        /**
+         * 代码块内部
+         */
+        CODE
+    }
+
+    private final CodeBlockHandler handler;
+
+    private final StringBuilder header = new StringBuilder();
+
+    private final StringBuilder segment = new StringBuilder();
+
+    private State state = State.TEXT;
+
+    /**
+     * 尚未确定是否构成围栏的连续反引号数量（可能跨片段）
+     */
+    private int pendingBackticks = 0;
+
+    public StreamingCodeParser(CodeBlockHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 追加一个流式片段
+     *
+     * @param chunk 片段内容
+     */
+    public void append(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case TEXT, CODE -> {
+                    if (c == '`') {
+                        if (++pendingBackticks == FENCE_LENGTH) {
+                            pendingBackticks = 0;
+                            onFence();
+                        }
+                    } else {
+                        flushPendingBackticks();
+                        segment.append(c);
+                    }
+                }
+                case HEADER -> {
+                    if (c == '\n') {
+                        state = State.CODE;
+                        handler.onBlockStart(header.toString().trim().toLowerCase());
+                        header.setLength(0);
+                    } else if (header.length() < MAX_HEADER_LENGTH) {
+                        header.append(c);
+                    }
+                }
+            }
+        }
+        flushSegment();
+    }
+
+    /**
+     * 流结束，未闭合的代码块视为结束
+     */
+    public void finish() {
+        flushPendingBackticks();
+        flushSegment();
+        if (state == State.CODE) {
+            handler.onBlockEnd();
+        }
+        state = State.TEXT;
+        header.setLength(0);
+    }
+
+    /**
+     * 遇到完整的 ``` 围栏
+     */
+    private void onFence() {
+        flushSegment();
+        if (state == State.TEXT) {
+            state = State.HEADER;
+        } else {
+            state = State.TEXT;
+            handler.onBlockEnd();
+        }
+    }
+
+    /**
+     * 不足 3 个的反引号属于正文内容
+     */
+    private void flushPendingBackticks() {
+        for (; pendingBackticks > 0; pendingBackticks--) {
+            segment.append('`');
+        }
+    }
+
+    private void flushSegment() {
+        if (segment.isEmpty()) {
+            return;
+        }
+        if (state == State.CODE) {
+            handler.onBlockContent(segment);
+        } else {
+            handler.onText(segment);
+        }
+        segment.setLength(0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.zake.aicode.core.resource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件发送工具
+ * 容器支持 sendfile 时交给 Tomcat 零拷贝发送（在请求处理结束后由连接器直接发送文件），
+ * 否则用 FileChannel.transferTo 写入响应流
+ */
+public final class FileSender {
+
+    /**
+     * Tomcat sendfile 相关的请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private FileSender() {
+    }
+
+    /**
+     * 发送文件区间，调用前需要设置好状态码和 Content-Length
+     *
+     * @param file     文件
+     * @param start    起始位置
+     * @param length   长度
+     * @param request  请求
+     * @param response 响应
+     */
+    public static void send(Path file, long start, long length,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            response.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.zake.aicode.core.resource;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 静态资源 MIME 类型映射
+ * 覆盖原生 HTML 和 Vue 工程 dist 目录中常见的文件类型
+ */
+public final class MimeTypes {
+
+    private static final String DEFAULT_TYPE = "application/octet-stream";
+
+    private static final Map<String, String> TYPES = Map.ofEntries(
+            // 页面和脚本
+            Map.entry("html", "text/html"),
+            Map.entry("htm", "text/html"),
+            Map.entry("css", "text/css"),
+            Map.entry("js", "text/javascript"),
+            Map.entry("mjs", "text/javascript"),
+            Map.entry("cjs", "text/javascript"),
+            Map.entry("json", "application/json"),
+            Map.entry("map", "application/json"),
+            Map.entry("webmanifest", "application/manifest+json"),
+            Map.entry("wasm", "application/wasm"),
+            Map.entry("xml", "application/xml"),
+            Map.entry("txt", "text/plain"),
+            Map.entry("md", "text/markdown"),
+            Map.entry("csv", "text/csv"),
+            // 图片
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("avif", "image/avif"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("bmp", "image/bmp"),
+            // 字体
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("ttf", "font/ttf"),
+            Map.entry("otf", "font/otf"),
+            Map.entry("eot", "application/vnd.ms-fontobject"),
+            // 音视频和文档
+            Map.entry("mp4", "video/mp4"),
+            Map.entry("webm", "video/webm"),
+            Map.entry("mp3", "audio/mpeg"),
+            Map.entry("wav", "audio/wav"),
+            Map.entry("ogg", "audio/ogg"),
+            Map.entry("pdf", "application/pdf")
+    );
+
+    /**
+     * 文本类型，需要带上字符编码
+     */
+    private static final Set<String> TEXT_TYPES = Set.of(
+            "text/html", "text/css", "text/javascript", "application/json", "application/manifest+json",
+            "application/xml", "text/plain", "text/markdown", "text/csv", "image/svg+xml"
+    );
+
+    /**
+     * 值得压缩的类型（图片、woff/woff2、音视频本身已经压缩）
+     */
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "text/html", "text/css", "text/javascript", "application/json", "application/manifest+json",
+            "application/wasm", "application/xml", "text/plain", "text/markdown", "text/csv", "image/svg+xml",
+            "image/x-icon", "image/bmp", "font/ttf", "font/otf", "application/vnd.ms-fontobject"
+    );
+
+    private MimeTypes() {
+    }
+
+    /**
+     * 根据文件名获取 Content-Type（文本类型带 UTF-8 编码）
+     */
+    public static String getContentType(String fileName) {
+        String type = TYPES.getOrDefault(getExtension(fileName), DEFAULT_TYPE);
+        return TEXT_TYPES.contains(type) ? type + "; charset=UTF-8" : type;
+    }
+
+    /**
+     * 判断文件是否值得压缩
+     */
+    public static boolean isCompressible(String fileName) {
+        String type = TYPES.get(getExtension(fileName));
+        return type != null && COMPRESSIBLE_TYPES.contains(type);
+    }
+
+    private static String getExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,367 @@
+package com.zake.aicode.core.resource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预览静态资源服务
+ * - 文件元数据（大小、修改时间、类型、ETag、预压缩版本）缓存在内存中，命中时不访问磁盘
+ * - 强 ETag + Last-Modified 协商缓存，带内容哈希的构建产物按不可变资源长期缓存
+ * - 保存和构建完成后生成 .gz 预压缩文件，按 Accept-Encoding 选择发送，已存在的 .br 文件同样会被使用
+ * - 文件内容交给 {@link FileSender} 零拷贝发送
+ */
+@Slf4j
+public final class StaticResources {
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private static final String BROTLI_SUFFIX = ".br";
+
+    /**
+     * 小于该大小的文件压缩收益不明显
+     */
+    private static final long MIN_COMPRESS_SIZE = 1024;
+
+    /**
+     * Vite 构建产物中带内容哈希的文件，例如 /dist/assets/index-BQ3fX1a9.js（Rollup 默认 8 位 base64url 哈希）
+     * 只匹配 Vite 输出目录：HTML、多文件项目的 assets 目录中的文件会在重新生成时原地覆盖，不能长期缓存
+     */
+    private static final Pattern HASHED_ASSET = Pattern.compile("^/dist/assets/[^/]+-([A-Za-z0-9_-]{8})\\.[A-Za-z0-9]+$");
+
+    /**
+     * 全部为小写字母的 8 位后缀更可能是普通单词（如 my-pictures.png），不视为哈希
+     */
+    private static final Pattern LOWERCASE_WORD = Pattern.compile("[a-z]{8}");
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    /**
+     * 文件路径 -> 元数据（文件不存在时缓存空值，避免重复访问磁盘）
+     * 保存和构建时主动失效，过期时间兜底其他途径的修改
+     */
+    private static final Cache<Path, Optional<FileMeta>> METADATA = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    private StaticResources() {
+    }
+
+    /**
+     * 预压缩版本
+     *
+     * @param file 压缩文件
+     * @param size 文件大小
+     */
+    public record Variant(Path file, long size) {
+    }
+
+    /**
+     * 文件元数据
+     *
+     * @param file         文件
+     * @param size         文件大小
+     * @param lastModified 修改时间（毫秒）
+     * @param contentType  内容类型
+     * @param etag         强 ETag
+     * @param gzip         gzip 预压缩版本，可能为 null
+     * @param brotli       brotli 预压缩版本，可能为 null
+     */
+    public record FileMeta(Path file, long size, long lastModified, String contentType, String etag,
+                           Variant gzip, Variant brotli) {
+    }
+
+    /**
+     * 发送静态资源
+     *
+     * @param rootDir      资源根目录
+     * @param resourcePath 根目录下的相对路径（以 / 开头）
+     * @param request      请求
+     * @param response     响应
+     */
+    public static void serve(Path rootDir, String resourcePath,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path root = rootDir.toAbsolutePath().normalize();
+        Path file = root.resolve(resourcePath.replaceFirst("^/+", "")).normalize();
+        if (!file.startsWith(root)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileMeta meta = lookup(file).orElse(null);
+        if (meta == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Variant variant = selectVariant(meta, request.getHeader("Accept-Encoding"));
+        String etag = variant == null ? meta.etag() : variantEtag(meta, variant);
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", meta.lastModified());
+        response.setHeader("Cache-Control", isHashedAsset(resourcePath) ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        if (meta.gzip() != null || meta.brotli() != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        if (isNotModified(request, meta)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        Path body = meta.file();
+        long length = meta.size();
+        if (variant != null) {
+            response.setHeader("Content-Encoding", variant == meta.brotli() ? "br" : "gzip");
+            body = variant.file();
+            length = variant.size();
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(meta.contentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        try {
+            FileSender.send(body, 0, length, request, response);
+        } catch (NoSuchFileException e) {
+            // 文件在元数据缓存之后被删除，下次请求重新读取
+            METADATA.invalidate(file);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取文件元数据
+     *
+     * @param file 文件路径
+     * @return 元数据，文件不存在或不是普通文件时为空
+     */
+    public static Optional<FileMeta> lookup(Path file) {
+        return METADATA.get(file.toAbsolutePath().normalize(), StaticResources::load);
+    }
+
+    /**
+     * 目录下的文件发生变化，清除其元数据缓存
+     *
+     * @param dir 目录
+     */
+    public static void invalidate(Path dir) {
+        Path normalized = dir.toAbsolutePath().normalize();
+        METADATA.asMap().keySet().removeIf(path -> path.startsWith(normalized));
+    }
+
+    /**
+     * 为单个文件生成 gzip 预压缩版本
+     * 不适合压缩的类型和小文件跳过，已有且不旧于源文件的压缩版本不重复生成
+     *
+     * @param file 文件
+     */
+    public static void precompress(Path file) {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(GZIP_SUFFIX) || fileName.endsWith(BROTLI_SUFFIX) || !MimeTypes.isCompressible(fileName)) {
+            return;
+        }
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile() || attrs.size() < MIN_COMPRESS_SIZE) {
+                return;
+            }
+            Path gzipFile = file.resolveSibling(fileName + GZIP_SUFFIX);
+            if (isFresh(gzipFile, attrs.lastModifiedTime())) {
+                return;
+            }
+            Path tempFile = file.resolveSibling(fileName + "." + UUID.randomUUID() + ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile)) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                Files.copy(file, out);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            try {
+                Files.move(tempFile, gzipFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, gzipFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("生成预压缩文件失败: {}, {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 为目录下所有文件生成 gzip 预压缩版本（用于 Vue 项目构建产物）
+     *
+     * @param dir 目录
+     */
+    public static void precompressDirectory(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(StaticResources::precompress);
+        } catch (IOException e) {
+            log.warn("预压缩目录失败: {}, {}", dir, e.getMessage());
+            return;
+        }
+        log.info("预压缩目录完成: {}，耗时 {} ms", dir, System.currentTimeMillis() - start);
+    }
+
+    private static Optional<FileMeta> load(Path file) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (!attrs.isRegularFile()) {
+            return Optional.empty();
+        }
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        String fileName = file.getFileName().toString();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        return Optional.of(new FileMeta(file, size, lastModified, MimeTypes.getContentType(fileName), etag,
+                loadVariant(file.resolveSibling(fileName + GZIP_SUFFIX), attrs.lastModifiedTime()),
+                loadVariant(file.resolveSibling(fileName + BROTLI_SUFFIX), attrs.lastModifiedTime())));
+    }
+
+    /**
+     * 读取预压缩版本，早于源文件的视为过期
+     */
+    private static Variant loadVariant(Path variantFile, FileTime sourceModified) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(variantFile, BasicFileAttributes.class);
+            if (attrs.isRegularFile() && attrs.lastModifiedTime().compareTo(sourceModified) >= 0) {
+                return new Variant(variantFile, attrs.size());
+            }
+        } catch (IOException ignored) {
+            // 没有预压缩版本
+        }
+        return null;
+    }
+
+    private static boolean isFresh(Path variantFile, FileTime sourceModified) {
+        try {
+            return Files.getLastModifiedTime(variantFile).compareTo(sourceModified) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 按 Accept-Encoding 选择预压缩版本，优先 brotli
+     */
+    static Variant selectVariant(FileMeta meta, String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        if (meta.brotli() != null && acceptsEncoding(acceptEncoding, "br")) {
+            return meta.brotli();
+        }
+        if (meta.gzip() != null && acceptsEncoding(acceptEncoding, "gzip")) {
+            return meta.gzip();
+        }
+        return null;
+    }
+
+    /**
+     * 判断 Accept-Encoding 是否接受指定编码（q=0 表示拒绝）
+     */
+    static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(coding) && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        if (Double.parseDouble(param.substring(2)) <= 0) {
+                            return false;
+                        }
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 压缩版本内容不同，使用不同的 ETag
+     */
+    private static String variantEtag(FileMeta meta, Variant variant) {
+        String suffix = variant == meta.brotli() ? "-br\"" : "-gz\"";
+        return meta.etag().substring(0, meta.etag().length() - 1) + suffix;
+    }
+
+    /**
+     * 协商缓存：优先比较 If-None-Match，没有时比较 If-Modified-Since
+     */
+    private static boolean isNotModified(HttpServletRequest request, FileMeta meta) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, meta);
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            // HTTP 日期精确到秒
+            return ifModifiedSince >= 0 && meta.lastModified() / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 任一版本的 ETag 匹配即可（代理压缩后可能把强 ETag 变为弱 ETag）
+     */
+    static boolean matchesEtag(String ifNoneMatch, FileMeta meta) {
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        String base = meta.etag().substring(0, meta.etag().length() - 1);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(meta.etag()) || candidate.equals(base + "-gz\"") || candidate.equals(base + "-br\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isHashedAsset(String resourcePath) {
+        Matcher matcher = HASHED_ASSET.matcher(resourcePath);
+        return matcher.matches() && !LOWERCASE_WORD.matcher(matcher.group(1)).matches();
+    }
+}
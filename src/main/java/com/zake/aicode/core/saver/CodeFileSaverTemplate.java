@@ -3,12 +3,15 @@ package com.zake.aicode.core.saver;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.core.archive.ProjectArchiveCache;
+import com.zake.aicode.core.resource.StaticResources;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.model.enums.CodeGenTypeEnum;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 /**
  * 抽象代码文件保存器 - 模板方法模式。定义通用 逻辑 和  通用方法，并调用抽象方法进行具体实现
@@ -79,6 +82,10 @@ public abstract class CodeFileSaverTemplate<T> {
         if (StrUtil.isNotBlank(content)) {
             String filePath = dirPath + File.separator + filename;
             FileUtil.writeString(content, filePath, StandardCharsets.UTF_8);
+            ProjectArchiveCache.invalidate(dirPath);
+            // 预览时直接发送压缩版本
+            StaticResources.precompress(Path.of(filePath));
+            StaticResources.invalidate(Path.of(dirPath));
         }
     }
 
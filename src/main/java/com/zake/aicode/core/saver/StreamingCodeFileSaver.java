@@ -0,0 +1,241 @@
+package com.zake.aicode.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.zake.aicode.constant.AppConstant;
+import com.zake.aicode.core.archive.ProjectArchiveCache;
+import com.zake.aicode.core.resource.StaticResources;
+import com.zake.aicode.core.parser.CodeBlockHandler;
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 流式代码文件保存器（HTML、MULTI_FILE）
+ * 配合 StreamingCodeParser 使用：代码块内容边到达边写入临时文件，
+ * 代码块闭合时原子替换为正式文件，预览可以立即读取到完整文件。
+ * 与 {@link CodeFileSaverTemplate} 保持相同的目录规则和保存规则：
+ * - 每种语言只取第一个代码块
+ * - 内容首尾空白去除，空内容不写入
+ * - HTML 模式下没有找到代码块时，将代码块之外的文本作为 HTML
+ * 一个实例只对应一次流式生成；取消信号可能来自其他线程，因此方法均加锁（无竞争时开销很小）。
+ */
+@Slf4j
+public class StreamingCodeFileSaver implements CodeBlockHandler {
+
+    private static final String HTML_FILE_NAME = "index.html";
+
+    private static final String TEMP_FILE_SUFFIX = ".part";
+
+    private final CodeGenTypeEnum codeGenType;
+
+    private final String baseDirPath;
+
+    /**
+     * 已经保存完成的文件名
+     */
+    private final Set<String> savedFiles = new HashSet<>();
+
+    /**
+     * 代码块之外的文本，仅 HTML 模式下用于兜底
+     */
+    private final StringBuilder fallbackText = new StringBuilder();
+
+    /**
+     * 尚未写入的空白字符，用于去除代码块末尾空白
+     */
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+
+    private Writer currentWriter;
+
+    private String currentFileName;
+
+    private Path currentTempFile;
+
+    /**
+     * 当前代码块是否已经写入非空白内容
+     */
+    private boolean currentStarted;
+
+    public StreamingCodeFileSaver(CodeGenTypeEnum codeGenType, Long appId) {
+        this(codeGenType, appId, Path.of(AppConstant.CODE_OUTPUT_ROOT_DIR));
+    }
+
+    StreamingCodeFileSaver(CodeGenTypeEnum codeGenType, Long appId, Path outputRoot) {
+        if (appId == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        }
+        if (codeGenType != CodeGenTypeEnum.HTML && codeGenType != CodeGenTypeEnum.MULTI_FILE) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型: " + codeGenType);
+        }
+        this.codeGenType = codeGenType;
+        String uniqueDirName = StrUtil.format("{}_{}", codeGenType.getValue(), appId);
+        this.baseDirPath = outputRoot.resolve(uniqueDirName).toString();
+    }
+
+    @Override
+    public synchronized void onText(CharSequence text) {
+        if (codeGenType == CodeGenTypeEnum.HTML && !savedFiles.contains(HTML_FILE_NAME)) {
+            fallbackText.append(text);
+        }
+    }
+
+    @Override
+    public synchronized void onBlockStart(String language) {
+        String fileName = resolveFileName(language);
+        if (fileName == null || savedFiles.contains(fileName)) {
+            // 不关心的语言或已经保存过的文件，忽略该代码块
+            return;
+        }
+        try {
+            FileUtil.mkdir(baseDirPath);
+            currentFileName = fileName;
+            currentTempFile = Path.of(baseDirPath, fileName + TEMP_FILE_SUFFIX);
+            currentWriter = Files.newBufferedWriter(currentTempFile, StandardCharsets.UTF_8);
+            currentStarted = false;
+            pendingWhitespace.setLength(0);
+        } catch (IOException e) {
+            log.error("创建临时文件失败: {}", e.getMessage());
+            abort();
+        }
+    }
+
+    @Override
+    public synchronized void onBlockContent(CharSequence content) {
+        if (currentWriter == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    // 开头的空白直接丢弃，中间的空白等遇到非空白字符再写入
+                    if (currentStarted) {
+                        pendingWhitespace.append(c);
+                    }
+                    continue;
+                }
+                if (!pendingWhitespace.isEmpty()) {
+                    currentWriter.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                }
+                currentWriter.write(c);
+                currentStarted = true;
+            }
+        } catch (IOException e) {
+            log.error("写入文件失败: {}, {}", currentFileName, e.getMessage());
+            abort();
+        }
+    }
+
+    @Override
+    public synchronized void onBlockEnd() {
+        if (currentWriter == null) {
+            return;
+        }
+        try {
+            currentWriter.close();
+            if (currentStarted) {
+                Path target = currentTempFile.resolveSibling(currentFileName);
+                moveReplacing(currentTempFile, target);
+                savedFiles.add(currentFileName);
+                fallbackText.setLength(0);
+                ProjectArchiveCache.invalidate(baseDirPath);
+                StaticResources.precompress(target);
+                StaticResources.invalidate(Path.of(baseDirPath));
+                log.info("流式保存文件成功: {}", target.toAbsolutePath());
+            } else {
+                Files.deleteIfExists(currentTempFile);
+            }
+        } catch (IOException e) {
+            log.error("保存文件失败: {}, {}", currentFileName, e.getMessage());
+        } finally {
+            resetCurrent();
+        }
+    }
+
+    /**
+     * 流式生成结束，执行兜底和校验
+     *
+     * @return 保存的目录
+     */
+    public synchronized File finish() {
+        if (!savedFiles.contains(HTML_FILE_NAME) && codeGenType == CodeGenTypeEnum.HTML
+                && StrUtil.isNotBlank(fallbackText)) {
+            // 如果没有找到代码块，将整个内容作为 HTML
+            FileUtil.mkdir(baseDirPath);
+            FileUtil.writeString(fallbackText.toString().trim(), baseDirPath + File.separator + HTML_FILE_NAME,
+                    StandardCharsets.UTF_8);
+            savedFiles.add(HTML_FILE_NAME);
+            ProjectArchiveCache.invalidate(baseDirPath);
+            StaticResources.precompress(Path.of(baseDirPath, HTML_FILE_NAME));
+            StaticResources.invalidate(Path.of(baseDirPath));
+        }
+        fallbackText.setLength(0);
+        if (!savedFiles.contains(HTML_FILE_NAME)) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "HTML代码内容不能为空");
+        }
+        return new File(baseDirPath);
+    }
+
+    /**
+     * 放弃当前正在写入的代码块（流出错或被取消时调用）
+     */
+    public synchronized void abort() {
+        if (currentWriter != null) {
+            try {
+                currentWriter.close();
+                Files.deleteIfExists(currentTempFile);
+            } catch (IOException e) {
+                log.warn("清理临时文件失败: {}", e.getMessage());
+            }
+        }
+        resetCurrent();
+    }
+
+    /**
+     * 根据代码块语言确定要保存的文件名
+     */
+    private String resolveFileName(String language) {
+        if ("html".equals(language)) {
+            return HTML_FILE_NAME;
+        }
+        if (codeGenType == CodeGenTypeEnum.MULTI_FILE) {
+            if ("css".equals(language)) {
+                return "style.css";
+            }
+            if ("js".equals(language) || "javascript".equals(language)) {
+                return "script.js";
+            }
+        }
+        return null;
+    }
+
+    private void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void resetCurrent() {
+        currentWriter = null;
+        currentFileName = null;
+        currentTempFile = null;
+        currentStarted = false;
+        pendingWhitespace.setLength(0);
+    }
+}
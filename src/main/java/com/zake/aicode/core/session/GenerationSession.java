@@ -0,0 +1,159 @@
+package com.zake.aicode.core.session;
+
+import cn.hutool.json.JSONUtil;
+import com.zake.aicode.core.admission.GenerationAdmissionController;
+import com.zake.aicode.exception.ErrorCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+/**
+ * 代码生成会话
+ * 会话自己订阅 AI 生成流，与 HTTP 连接解耦：浏览器断开不会取消生成。
+ * 生成的 SSE 事件带递增序号，保存在有界的回放缓冲区中，
+ * 断线重连（Last-Event-ID）或第二个标签页可以从任意序号之后继续接收；
+ * 要续接的事件已被挤出缓冲区时推送 business-error 和 done 事件结束，不会静默跳过内容。
+ * 生成排队期间推送 queue 事件告知排队位置。
+ */
+@Slf4j
+public class GenerationSession {
+
+    /**
+     * 结束事件名称，与前端约定
+     */
+    private static final String DONE_EVENT = "done";
+
+    /**
+     * 排队位置事件名称，与前端约定
+     */
+    private static final String QUEUE_EVENT = "queue";
+
+    /**
+     * 业务错误事件名称，与全局异常处理的 SSE 错误格式一致
+     */
+    private static final String BUSINESS_ERROR_EVENT = "business-error";
+
+    @Getter
+    private final Long appId;
+
+    @Getter
+    private final Long userId;
+
+    /**
+     * 回放缓冲区（环形，最多保留 bufferSize 个事件）+ 多播
+     */
+    private final Sinks.Many<SessionEvent> sink;
+
+    private long sequence = 0;
+
+    @Getter
+    private volatile boolean completed = false;
+
+    public GenerationSession(Long appId, Long userId, int bufferSize) {
+        this.appId = appId;
+        this.userId = userId;
+        this.sink = Sinks.many().replay().limit(bufferSize);
+    }
+
+    /**
+     * 开始消费生成流
+     *
+     * @param contentFlux AI 生成的内容流
+     * @param onTerminate 生成结束（成功或失败）后的回调
+     */
+    public void start(Flux<String> contentFlux, Runnable onTerminate) {
+        contentFlux
+                .doFinally(signalType -> {
+                    completed = true;
+                    onTerminate.run();
+                })
+                .contextWrite(GenerationAdmissionController.queuePositionListener(this::publishQueuePosition))
+                .subscribe(this::publishChunk, this::publishError, this::publishDone);
+    }
+
+    /**
+     * 订阅会话事件
+     *
+     * @param lastEventId 客户端已收到的最后一个事件序号，从头订阅传 0
+     * @return SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> attach(long lastEventId) {
+        long after = Math.max(0, lastEventId);
+        Flux<SessionEvent> events = sink.asFlux()
+                .filter(sessionEvent -> sessionEvent.seq() > after);
+        // 回放的第一个事件不紧接 lastEventId（从头订阅时不是第 1 个事件），说明中间的事件已被挤出缓冲区
+        return events.switchOnFirst((first, flux) -> {
+            if (first.hasValue() && first.get().seq() > after + 1) {
+                log.warn("应用 {} 订阅时缓冲区已不包含事件 {} 之后的全部内容", appId, after);
+                return terminalError("部分生成内容已过期，请刷新页面查看完整结果");
+            }
+            return flux.map(SessionEvent::event);
+        });
+    }
+
+    /**
+     * 以业务错误结束的事件流（不带序号，不影响客户端的 Last-Event-ID）
+     *
+     * @param message 错误信息
+     * @return business-error 和 done 两个事件
+     */
+    public static Flux<ServerSentEvent<String>> terminalError(String message) {
+        String errorJson = JSONUtil.toJsonStr(Map.of(
+                "error", true,
+                "code", ErrorCode.OPERATION_ERROR.getCode(),
+                "message", message));
+        return Flux.just(
+                ServerSentEvent.<String>builder().event(BUSINESS_ERROR_EVENT).data(errorJson).build(),
+                ServerSentEvent.<String>builder().event(DONE_EVENT).data("").build());
+    }
+
+    private synchronized void publishQueuePosition(int position) {
+        long seq = ++sequence;
+        emit(new SessionEvent(seq, ServerSentEvent.<String>builder()
+                .id(String.valueOf(seq))
+                .event(QUEUE_EVENT)
+                .data(JSONUtil.toJsonStr(Map.of("position", position)))
+                .build()));
+    }
+
+    private synchronized void publishChunk(String chunk) {
+        // 将内容包装成 JSON 对象，解决空格丢失的问题
+        String jsonData = JSONUtil.toJsonStr(Map.of("d", chunk));
+        long seq = ++sequence;
+        emit(new SessionEvent(seq, ServerSentEvent.<String>builder()
+                .id(String.valueOf(seq))
+                .data(jsonData)
+                .build()));
+    }
+
+    private synchronized void publishDone() {
+        // 发送结束事件，告知前端生成完成
+        long seq = ++sequence;
+        emit(new SessionEvent(seq, ServerSentEvent.<String>builder()
+                .id(String.valueOf(seq))
+                .event(DONE_EVENT)
+                .data("")
+                .build()));
+        sink.tryEmitComplete();
+    }
+
+    private synchronized void publishError(Throwable error) {
+        log.error("应用 {} 生成失败: {}", appId, error.getMessage());
+        sink.tryEmitError(error);
+    }
+
+    private void emit(SessionEvent sessionEvent) {
+        // 内容事件与排队事件来自不同线程，调用方加锁保证串行
+        Sinks.EmitResult result = sink.tryEmitNext(sessionEvent);
+        if (result.isFailure()) {
+            log.warn("应用 {} 会话事件下发失败: {}", appId, result);
+        }
+    }
+
+    private record SessionEvent(long seq, ServerSentEvent<String> event) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.zake.aicode.core.session;
+
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 代码生成会话管理器
+ * 每个应用同一时间最多一个进行中的生成会话；
+ * 生成结束后会话继续保留一段时间，供断线重连回放结尾的事件。
+ */
+@Slf4j
+@Component
+public class GenerationSessionManager {
+
+    /**
+     * appId -> 会话
+     */
+    private final Map<Long, GenerationSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 每个会话最多回放的事件数
+     */
+    @Value("${code.generation-session.buffer-size:1024}")
+    private int bufferSize;
+
+    /**
+     * 会话结束后保留的时间（秒）
+     */
+    @Value("${code.generation-session.retention-seconds:300}")
+    private long retentionSeconds;
+
+    /**
+     * 创建并启动生成会话
+     *
+     * @param appId         应用 ID
+     * @param userId        用户 ID
+     * @param contentSupply 生成内容流的提供者（只有成功占用会话后才会调用）
+     * @return 从头订阅的 SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> start(Long appId, Long userId, Supplier<Flux<String>> contentSupply) {
+        GenerationSession session = new GenerationSession(appId, userId, bufferSize);
+        sessions.compute(appId, (key, oldSession) -> {
+            if (oldSession != null && !oldSession.isCompleted()) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "该应用正在生成中，请稍后再试");
+            }
+            return session;
+        });
+        try {
+            Flux<String> contentFlux = contentSupply.get();
+            session.start(contentFlux, () -> scheduleRemoval(session));
+            // 订阅发生在启动之后，已产生的事件由回放缓冲区补发
+            return session.attach(0);
+        } catch (RuntimeException e) {
+            sessions.remove(appId, session);
+            throw e;
+        }
+    }
+
+    /**
+     * 重新连接到应用的生成会话
+     *
+     * @param appId       应用 ID
+     * @param userId      用户 ID
+     * @param lastEventId 客户端已收到的最后一个事件序号
+     * @return SSE 事件流，不存在会话时返回 null
+     */
+    public Flux<ServerSentEvent<String>> attach(Long appId, Long userId, long lastEventId) {
+        GenerationSession session = sessions.get(appId);
+        if (session == null) {
+            return null;
+        }
+        if (!session.getUserId().equals(userId)) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限访问该应用");
+        }
+        log.info("应用 {} 重新连接生成会话，lastEventId: {}", appId, lastEventId);
+        return session.attach(lastEventId);
+    }
+
+    /**
+     * 会话结束后延迟移除
+     */
+    private void scheduleRemoval(GenerationSession session) {
+        Schedulers.parallel().schedule(() -> sessions.remove(session.getAppId(), session),
+                retentionSeconds, TimeUnit.SECONDS);
+    }
+}
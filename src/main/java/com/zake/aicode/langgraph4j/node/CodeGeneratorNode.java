@@ -1,5 +1,6 @@
 package com.zake.aicode.langgraph4j.node;
 
+import com.zake.aicode.ai.model.message.StreamMessage;
 import com.zake.aicode.constant.AppConstant;
 import com.zake.aicode.core.AiCodeGeneratorFacade;
 import com.zake.aicode.langgraph4j.model.QualityResult;
@@ -37,7 +38,7 @@ public class CodeGeneratorNode {
             Long appId = 0L;
 
             // 调用流式代码生成
-            Flux<String> codeStream = codeGeneratorFacade.generateAndSaveCodeStream(userMessage, generationType, appId);
+            Flux<StreamMessage> codeStream = codeGeneratorFacade.generateAndSaveCodeStream(userMessage, generationType, appId);
             // 同步等待流式输出完成
             codeStream.blockLast(Duration.ofMinutes(10)); // 最多等待 10 分钟
             // 根据类型设置生成目录
@@ -1,5 +1,6 @@
 package com.zake.aicode.langgraph4j.node;
 
+import com.zake.aicode.core.builder.BuildPriority;
 import com.zake.aicode.core.builder.VueProjectBuilder;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
@@ -35,7 +36,7 @@ public class ProjectBuilderNode {
                 try {
                     VueProjectBuilder vueBuilder = SpringContextUtil.getBean(VueProjectBuilder.class);
                     // 执行 Vue 项目构建（npm install + npm run build）
-                    boolean buildSuccess = vueBuilder.buildProject(generatedCodeDir);
+                    boolean buildSuccess = vueBuilder.buildProject(generatedCodeDir, BuildPriority.WORKFLOW);
                     if (buildSuccess) {
                         // 构建成功，返回 dist 目录路径
                         buildResultDir = generatedCodeDir + File.separator + "dist";
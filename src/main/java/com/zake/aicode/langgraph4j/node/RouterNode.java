@@ -1,6 +1,6 @@
 package com.zake.aicode.langgraph4j.node;
 
-import com.zake.aicode.ai.AiCodeGenTypeRoutingService;
+import com.zake.aicode.ai.CodeGenTypeRouter;
 import com.zake.aicode.langgraph4j.state.WorkflowContext;
 import com.zake.aicode.model.enums.CodeGenTypeEnum;
 import com.zake.aicode.utils.SpringContextUtil;
@@ -24,10 +24,10 @@ public class RouterNode {
 
             CodeGenTypeEnum generationType;
             try {
-                // 获取AI路由服务
-                AiCodeGenTypeRoutingService routingService = SpringContextUtil.getBean(AiCodeGenTypeRoutingService.class);
+                // 获取路由器（关键词预路由 + 结果缓存 + AI 路由）
+                CodeGenTypeRouter codeGenTypeRouter = SpringContextUtil.getBean(CodeGenTypeRouter.class);
                 // 根据原始提示词进行智能路由
-                generationType = routingService.routeCodeGenType(context.getOriginalPrompt());
+                generationType = codeGenTypeRouter.route(context.getOriginalPrompt());
                 log.info("AI智能路由完成，选择类型: {} ({})", generationType.getValue(), generationType.getText());
             } catch (Exception e) {
                 log.error("AI智能路由失败，使用默认HTML类型: {}", e.getMessage());
@@ -0,0 +1,213 @@
+package com.zake.aicode.manager;
+
+import com.zake.aicode.mapper.ChatHistoryMapper;
+import com.zake.aicode.model.entity.ChatHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对话历史批量异步写入（write-behind）
+ * 流式响应结束时只把记录放入有界队列，由专用线程合并成多行 INSERT 写入数据库，
+ * 流的结束时延不再受 MySQL 时延影响。
+ * 队列满时退化为调用方同步写入（背压），保证记录不丢失；应用关闭时会写完队列中的剩余记录。
+ * 记录入队后到写入数据库前存在短暂的读写窗口，按应用读取历史前应调用 {@link #awaitFlushed} 等待该应用的记录写完。
+ */
+@Slf4j
+@Component
+public class ChatHistoryBatchWriter {
+
+    @Resource
+    private ChatHistoryMapper chatHistoryMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 队列容量
+     */
+    @Value("${code.chat-history-writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 单次 INSERT 最多的行数
+     */
+    @Value("${code.chat-history-writer.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 等待凑批的最长时间（毫秒）
+     */
+    @Value("${code.chat-history-writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<ChatHistory> queue;
+
+    /**
+     * appId -> 已提交但尚未写入数据库的记录数
+     */
+    private final Map<Long, Integer> pendingByApp = new ConcurrentHashMap<>();
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private Counter writtenCounter;
+
+    private Counter failedCounter;
+
+    private Counter overflowCounter;
+
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("chat_history_write_queue_size", queue, BlockingQueue::size)
+                .description("对话历史待写入队列长度")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("chat_history_write_rows_total")
+                .description("对话历史写入行数")
+                .tag("result", "success")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("chat_history_write_rows_total")
+                .description("对话历史写入行数")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        overflowCounter = Counter.builder("chat_history_write_overflow_total")
+                .description("队列已满、退化为同步写入的次数")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("chat_history_write_batch_duration")
+                .description("对话历史批量写入耗时")
+                .register(meterRegistry);
+        running = true;
+        writerThread = Thread.ofPlatform()
+                .name("chat-history-writer")
+                .daemon(true)
+                .start(this::runLoop);
+    }
+
+    /**
+     * 提交一条对话记录
+     *
+     * @param chatHistory 对话记录
+     */
+    public void submit(ChatHistory chatHistory) {
+        pendingByApp.merge(chatHistory.getAppId(), 1, Integer::sum);
+        if (running && queue.offer(chatHistory)) {
+            return;
+        }
+        // 队列已满（或正在关闭），由调用方同步写入
+        overflowCounter.increment();
+        log.warn("对话历史写入队列已满，同步写入，appId: {}", chatHistory.getAppId());
+        insertSingle(chatHistory);
+    }
+
+    private void runLoop() {
+        List<ChatHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatHistory first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭时被中断，继续把队列写完
+                Thread.currentThread().interrupt();
+                drainRemaining(batch);
+                return;
+            } catch (Exception e) {
+                log.error("对话历史批量写入线程异常: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainRemaining(List<ChatHistory> batch) {
+        batch.clear();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<ChatHistory> batch) {
+        try {
+            batchTimer.record(() -> chatHistoryMapper.insertBatch(batch));
+            writtenCounter.increment(batch.size());
+            batch.forEach(this::markWritten);
+        } catch (Exception e) {
+            // 整批失败时逐条重试，避免一条坏数据拖累整批
+            log.error("对话历史批量写入失败，逐条重试，size: {}, error: {}", batch.size(), e.getMessage());
+            batch.forEach(this::insertSingle);
+        }
+    }
+
+    private void insertSingle(ChatHistory chatHistory) {
+        try {
+            // 只写入非空字段，未设置的列使用数据库默认值
+            chatHistoryMapper.insertSelective(chatHistory);
+            writtenCounter.increment();
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("对话历史写入失败，appId: {}, error: {}", chatHistory.getAppId(), e.getMessage());
+        } finally {
+            markWritten(chatHistory);
+        }
+    }
+
+    private void markWritten(ChatHistory chatHistory) {
+        pendingByApp.computeIfPresent(chatHistory.getAppId(), (appId, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 等待指定应用已提交的记录全部写入数据库（写入失败的记录也视为已处理）
+     *
+     * @param appId     应用 ID
+     * @param timeoutMs 最长等待时间（毫秒）
+     * @return 是否已全部写入（超时返回 false）
+     */
+    public boolean awaitFlushed(Long appId, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (pendingByApp.containsKey(appId)) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+        }
+    }
+}
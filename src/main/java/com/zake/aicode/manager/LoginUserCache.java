@@ -0,0 +1,122 @@
+package com.zake.aicode.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zake.aicode.model.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 登录用户本地缓存
+ * 每个请求都要获取登录用户，命中本地缓存时不访问数据库；
+ * 用户被修改或删除时通过 Redis 发布订阅通知所有节点失效，封禁、角色变更秒级生效，TTL 只作为消息丢失时的兜底。
+ * 加载与失效并发时，通过版本号避免把失效前读到的旧数据写回缓存。
+ */
+@Slf4j
+@Component
+public class LoginUserCache {
+
+    private static final String INVALIDATE_TOPIC = "login_user:invalidate";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    private final Cache<Long, User> cache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    /**
+     * 失效版本号，每次失效递增
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 其他需要随用户变更一起失效的本地缓存
+     */
+    private final List<Consumer<Long>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    private RTopic topic;
+
+    private int listenerId;
+
+    @PostConstruct
+    public void init() {
+        topic = redissonClient.getTopic(INVALIDATE_TOPIC);
+        listenerId = topic.addListener(Long.class, (channel, userId) -> invalidateLocal(userId));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        topic.removeListener(listenerId);
+    }
+
+    /**
+     * 获取登录用户，未命中时使用 loader 加载
+     *
+     * @param userId 用户 ID
+     * @param loader 加载函数（查询数据库）
+     * @return 用户，不存在时为 null
+     */
+    public User get(Long userId, Function<Long, User> loader) {
+        User user = cache.getIfPresent(userId);
+        if (user != null) {
+            return user;
+        }
+        long loadVersion = version.get();
+        user = loader.apply(userId);
+        if (user != null) {
+            cache.put(userId, user);
+            // 加载期间发生过失效，读到的数据可能已过期，不保留
+            if (version.get() != loadVersion) {
+                cache.invalidate(userId);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * 失效所有节点上的用户缓存（用户修改、删除后调用）
+     *
+     * @param userId 用户 ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidateLocal(userId);
+        try {
+            topic.publish(userId);
+        } catch (Exception e) {
+            // 通知失败时其他节点依赖 TTL 兜底
+            log.error("发布用户缓存失效消息失败，userId: {}, error: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 注册随用户变更一起失效的本地缓存
+     *
+     * @param listener 失效回调，参数为用户 ID
+     */
+    public void addInvalidationListener(Consumer<Long> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    private void invalidateLocal(Long userId) {
+        version.incrementAndGet();
+        cache.invalidate(userId);
+        invalidationListeners.forEach(listener -> listener.accept(userId));
+    }
+}
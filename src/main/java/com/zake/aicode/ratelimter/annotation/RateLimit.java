@@ -39,4 +39,9 @@ public @interface RateLimit {
      * 限流提示信息
      */
     String message() default "请求过于频繁，请稍后再试";
+
+    /**
+     * 请求带有该请求头时不计入限流（如 SSE 断线重连的 Last-Event-ID），为空表示总是限流
+     */
+    String skipIfHeader() default "";
 }
@@ -4,6 +4,7 @@ import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.model.entity.User;
 import com.zake.aicode.ratelimter.annotation.RateLimit;
+import com.zake.aicode.ratelimter.limiter.HybridRateLimiter;
 import com.zake.aicode.service.UserService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,16 +13,11 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.redisson.api.RRateLimiter;
-import org.redisson.api.RateIntervalUnit;
-import org.redisson.api.RateType;
-import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
-import java.time.Duration;
 
 /**
  * 限流切面核心逻辑
@@ -32,10 +28,10 @@ import java.time.Duration;
 public class RateLimitAspect {
 
     /**
-     * redis客户端
+     * 两级限流器
      */
     @Resource
-    private RedissonClient redissonClient;
+    private HybridRateLimiter hybridRateLimiter;
 
     /**
      * 用户服务
@@ -50,18 +46,34 @@ public class RateLimitAspect {
      */
     @Before("@annotation(rateLimit)")
     public void doBefore(JoinPoint point, RateLimit rateLimit) {
+        if (hasSkipHeader(rateLimit)) {
+            return;
+        }
         String key = generateRateLimitKey(point, rateLimit);
-        // 使用 Redisson 的分布式限流器
-        RRateLimiter rateLimiter = redissonClient.getRateLimiter(key);
-        rateLimiter.expire(Duration.ofHours(1)); // 1 小时后过期
-        // 设置限流器参数：每个时间窗口允许的请求数和时间窗口
-        rateLimiter.trySetRate(RateType.OVERALL, rateLimit.rate(), rateLimit.rateInterval(), RateIntervalUnit.SECONDS);
-        // 尝试获取一个令牌，如果获取失败则限流
-        if (!rateLimiter.tryAcquire(1)) {
+        // 本地令牌桶 + Redisson 分布式限流器，获取失败则限流
+        if (!hybridRateLimiter.tryAcquire(key, rateLimit.rate(), rateLimit.rateInterval())) {
             throw new BusinessException(ErrorCode.TOO_MANY_REQUEST, rateLimit.message());
         }
     }
 
+    /**
+     * 请求是否带有免限流的请求头
+     *
+     * @param rateLimit
+     * @return
+     */
+    private boolean hasSkipHeader(RateLimit rateLimit) {
+        if (rateLimit.skipIfHeader().isEmpty()) {
+            return false;
+        }
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        String value = attributes.getRequest().getHeader(rateLimit.skipIfHeader());
+        return value != null && !value.isBlank();
+    }
+
     /**
      * 生成限流key
      *
@@ -0,0 +1,175 @@
+package com.zake.aicode.ratelimter.limiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 两级限流器：本地令牌桶 + Redisson 分布式限流器
+ * 本地令牌用完时才访问 Redis，并一次租借一批令牌；限流参数每个 key 只设置一次。
+ * 租借的令牌已经从全局令牌桶中扣除，因此总量不会超限，只是可能在时间窗口内略有提前。
+ * 小额度的限流（如每用户每分钟 5 次）每次只租借 1 个，与纯 Redis 限流行为一致。
+ * 每个 key 用 ReentrantLock 串行化：访问 Redis 期间等待的虚拟线程会让出载体线程（synchronized 会钉住载体线程），
+ * 同一 key 的并发请求等待这一次租借，而不是各自再去 Redis 租借一批。
+ */
+@Slf4j
+@Component
+public class HybridRateLimiter {
+
+    /**
+     * 每次租借的令牌数占窗口额度的比例
+     */
+    private static final int LEASE_DIVISOR = 10;
+
+    /**
+     * 单次最多租借的令牌数
+     */
+    private static final int MAX_LEASE = 50;
+
+    /**
+     * Redis 中限流器的过期时间
+     */
+    private static final Duration REDIS_KEY_TTL = Duration.ofHours(1);
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 本地令牌桶，空闲时间短于 Redis key 的过期时间，保证本地认为已配置时 Redis 中仍存在
+     */
+    private final Cache<String, LocalBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(100000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    private final ConcurrentMap<String, Counter> decisionCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key                 限流 key
+     * @param rate                每个时间窗口允许的请求数
+     * @param rateIntervalSeconds 时间窗口（秒）
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(String key, long rate, long rateIntervalSeconds) {
+        // 创建本地桶不访问 Redis，避免在缓存的计算锁内阻塞
+        LocalBucket bucket = buckets.get(key, k -> new LocalBucket());
+        bucket.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (bucket.permits > 0 && now < bucket.leaseExpiresAt) {
+                bucket.permits--;
+                record("local", true);
+                return true;
+            }
+            long lease = leaseSize(rate);
+            long leased = lease(bucket, key, rate, rateIntervalSeconds, lease);
+            boolean allowed = leased > 0;
+            if (allowed) {
+                // 当前请求消耗一个，其余留在本地，窗口结束后作废
+                bucket.permits = leased - 1;
+                bucket.leaseExpiresAt = now + TimeUnit.SECONDS.toNanos(rateIntervalSeconds);
+            }
+            record("remote", allowed);
+            return allowed;
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    /**
+     * 从 Redis 租借令牌，批量租借失败时退化为租借 1 个
+     *
+     * @return 租借到的令牌数
+     */
+    private long lease(LocalBucket bucket, String key, long rate, long rateIntervalSeconds, long lease) {
+        if (bucket.rateLimiter == null) {
+            bucket.rateLimiter = configure(key, rate, rateIntervalSeconds);
+        }
+        try {
+            return doLease(bucket.rateLimiter, lease);
+        } catch (RedisException e) {
+            // Redis 中的限流器已过期或被删除，重新设置后重试
+            log.warn("限流器 {} 不可用，重新设置: {}", key, e.getMessage());
+            bucket.rateLimiter = configure(key, rate, rateIntervalSeconds);
+            return doLease(bucket.rateLimiter, lease);
+        }
+    }
+
+    private long doLease(RRateLimiter rateLimiter, long lease) {
+        long leased = 0;
+        if (rateLimiter.tryAcquire(lease)) {
+            leased = lease;
+        } else if (lease > 1 && rateLimiter.tryAcquire(1)) {
+            leased = 1;
+        }
+        // 活跃的 key 续期，异步执行不增加时延
+        rateLimiter.expireAsync(REDIS_KEY_TTL);
+        return leased;
+    }
+
+    private RRateLimiter configure(String key, long rate, long rateIntervalSeconds) {
+        RRateLimiter rateLimiter = redissonClient.getRateLimiter(key);
+        // 设置限流器参数：每个时间窗口允许的请求数和时间窗口（已存在时不会覆盖）
+        rateLimiter.trySetRate(RateType.OVERALL, rate, rateIntervalSeconds, RateIntervalUnit.SECONDS);
+        rateLimiter.expire(REDIS_KEY_TTL);
+        return rateLimiter;
+    }
+
+    private static long leaseSize(long rate) {
+        return Math.max(1, Math.min(MAX_LEASE, rate / LEASE_DIVISOR));
+    }
+
+    private void record(String source, boolean allowed) {
+        String result = allowed ? "allowed" : "rejected";
+        decisionCounters.computeIfAbsent(source + "_" + result, k ->
+                Counter.builder("rate_limit_decisions_total")
+                        .description("限流判定次数（本地 / Redis）")
+                        .tag("source", source)
+                        .tag("result", result)
+                        .register(meterRegistry)
+        ).increment();
+    }
+
+    /**
+     * 单个 key 的本地令牌桶
+     */
+    private static class LocalBucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Redis 限流器，第一次租借时设置
+         */
+        private RRateLimiter rateLimiter;
+
+        /**
+         * 本地剩余的已租借令牌
+         */
+        private long permits;
+
+        /**
+         * 已租借令牌的失效时间（nanoTime）
+         */
+        private long leaseExpiresAt;
+    }
+}
@@ -27,6 +27,15 @@ public interface ChatHistoryService extends IService<ChatHistory> {
      */
     boolean addChatMessage(Long appId, String message, String messageType, Long userId);
 
+    /**
+     * 异步添加对话消息（批量写入，不阻塞调用线程）
+     * @param appId
+     * @param message
+     * @param messageType
+     * @param userId
+     */
+    void addChatMessageAsync(Long appId, String message, String messageType, Long userId);
+
     /**
      *  删除对话消息
      * @param appId
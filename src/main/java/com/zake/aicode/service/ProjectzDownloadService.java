@@ -1,7 +1,9 @@
 package com.zake.aicode.service;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 public interface ProjectzDownloadService {
-    void downloadProjectAsZip(String projectPath, String downloadFileName, HttpServletResponse response);
+    void downloadProjectAsZip(String projectPath, String downloadFileName,
+                              HttpServletRequest request, HttpServletResponse response);
 }
@@ -8,7 +8,9 @@ import com.zake.aicode.model.vo.LoginUserVO;
 import com.zake.aicode.model.vo.UserVO;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户 服务层。
@@ -82,6 +84,22 @@ public interface UserService extends IService<User> {
      */
     public List<UserVO> getUserVOList(List<User> userList) ;
 
+    /**
+     * 根据用户 ID 获取用户 VO（带本地缓存）
+     *
+     * @param userId 用户 ID
+     * @return 用户 VO，用户不存在时为 null
+     */
+    UserVO getUserVOById(Long userId);
+
+    /**
+     * 批量获取用户 VO（带本地缓存，未命中的用户一次性查询）
+     *
+     * @param userIds 用户 ID 集合
+     * @return 用户 ID -> 用户 VO，不存在的用户不在结果中
+     */
+    Map<Long, UserVO> getUserVOMapByIds(Collection<Long> userIds);
+
     /**
      *  查询 QueryWrapper
      * @param userQueryRequest
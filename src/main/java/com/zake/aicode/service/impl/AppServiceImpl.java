@@ -2,17 +2,20 @@ package com.zake.aicode.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
-import com.zake.aicode.ai.AiCodeGenTypeRoutingService;
-import com.zake.aicode.ai.AiCodeGenTypeRoutingServiceFactory;
+import com.zake.aicode.ai.CodeGenTypeRouter;
+import com.zake.aicode.ai.model.message.StreamMessage;
+import com.zake.aicode.config.SseBatchConfig;
 import com.zake.aicode.constant.AppConstant;
 import com.zake.aicode.core.AiCodeGeneratorFacade;
+import com.zake.aicode.core.admission.GenerationAdmissionController;
 import com.zake.aicode.core.builder.VueProjectBuilder;
+import com.zake.aicode.core.deploy.SnapshotDeployer;
+import com.zake.aicode.core.handler.StreamChunkCoalescer;
 import com.zake.aicode.core.handler.StreamHandlerExecutor;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
@@ -49,6 +52,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -77,11 +81,19 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     @Resource
     private VueProjectBuilder vueProjectBuilder;
     @Resource
+    private SnapshotDeployer snapshotDeployer;
+    @Resource
     private ScreenshotServiceImpl screenshotService;
 
 
     @Resource
-    private AiCodeGenTypeRoutingServiceFactory aiCodeGenTypeRoutingServiceFactory;
+    private CodeGenTypeRouter codeGenTypeRouter;
+
+    @Resource
+    private SseBatchConfig sseBatchConfig;
+
+    @Resource
+    private GenerationAdmissionController generationAdmissionController;
 
     @Override
     public String deployApp(Long appId, User loginUser) {
@@ -122,13 +134,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
             // 构建完成后，需要将构建后的文件复制到部署目录
             sourceDir = distDir;
         }
-        // 8. 复制文件到部署目录
-        String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
-        try {
-            FileUtil.copyContent(sourceDir, new File(deployDirPath), true);
-        } catch (Exception e) {
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "应用部署失败：" + e.getMessage());
-        }
+        // 8. 生成部署快照并切换（只写入有变化的文件）
+        snapshotDeployer.deploy(sourceDir, deployKey);
         // 9. 更新数据库
         App updateApp = new App();
         updateApp.setId(appId);
@@ -179,7 +186,6 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
             throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限访问该应用");
         }
         // 4. 获取应用的代码生成类型  多利器模式
-        AiCodeGenTypeRoutingService routingService = aiCodeGenTypeRoutingServiceFactory.createAiCodeGenTypeRoutingService();
         String codeGenTypeStr = app.getCodeGenType();
         CodeGenTypeEnum codeGenTypeEnum = CodeGenTypeEnum.getEnumByValue(codeGenTypeStr);
         if (codeGenTypeEnum == null) {
@@ -220,16 +226,22 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
 // 5. 通过校验后，添加用户消息到对话历史
         chatHistoryService.addChatMessage(appId, message, ChatHistoryMessageTypeEnum.USER.getValue(), loginUser.getId());
 // 6. 设置监控上下文
-        MonitorContextHolder.setContext(
-                MonitorContext.builder()
-                        .userId(loginUser.getId().toString())
-                        .appId(appId.toString())
-                        .build()
-        );
-// 7. 调用 AI 生成代码（流式）
-        Flux<String> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
+        MonitorContext monitorContext = MonitorContext.builder()
+                .userId(loginUser.getId().toString())
+                .appId(appId.toString())
+                .build();
+        MonitorContextHolder.setContext(monitorContext);
+// 7. 调用 AI 生成代码（流式），经过并发准入控制，满载时排队等待
+        Flux<StreamMessage> codeStream = generationAdmissionController.admit(loginUser.getId(), codeGenTypeEnum, () -> {
+            // 排队放行后在其他线程上开始生成，需要重新设置监控上下文
+            MonitorContextHolder.setContext(monitorContext);
+            return aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
+        });
 // 8. 收集 AI 响应内容并在完成后记录到对话历史
-        return streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum)
+        Flux<String> contentFlux = streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum);
+// 9. 按大小或时间合并 token，减少 SSE 帧数
+        return StreamChunkCoalescer.coalesce(contentFlux,
+                        sseBatchConfig.getMaxChars(codeGenTypeEnum), sseBatchConfig.getMaxDelay(codeGenTypeEnum))
                 .doFinally(signalType -> {
                     // 流结束时清理（无论成功/失败/取消）
                     MonitorContextHolder.clearContext();
@@ -257,9 +269,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         app.setUserId(loginUser.getId());
         // 应用名称暂时为 initPrompt 前 12 位
         app.setAppName(initPrompt.substring(0, Math.min(initPrompt.length(), 12)));
-        // 使用 AI 智能选择代码生成类型
-        AiCodeGenTypeRoutingService aiCodeGenTypeRoutingService = aiCodeGenTypeRoutingServiceFactory.createAiCodeGenTypeRoutingService();
-        CodeGenTypeEnum selectedCodeGenType = aiCodeGenTypeRoutingService.routeCodeGenType(initPrompt);
+        // 智能选择代码生成类型（关键词预路由 + 结果缓存，必要时才调用 AI）
+        CodeGenTypeEnum selectedCodeGenType = codeGenTypeRouter.route(initPrompt);
         app.setCodeGenType(selectedCodeGenType.getValue());
 //        // 暂时设置为多文件生成
 //        app.setCodeGenType(CodeGenTypeEnum.VUE_PROJECT.getValue());
@@ -357,16 +368,6 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     public AppVO getAppVOById(App app) {
 
         ThrowUtils.throwIf(app == null, ErrorCode.PARAMS_ERROR);
-        AppVO appVO = new AppVO();
-        BeanUtil.copyProperties(app, appVO);
-
-        // 关联查询用户信息
-        Long userId = app.getUserId();
-        if (userId != null) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            appVO.setUser(userVO);
-        }
         return getAppVO(app);
     }
 
@@ -472,13 +473,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         }
         AppVO appVO = new AppVO();
         BeanUtil.copyProperties(app, appVO);
-        // 关联查询用户信息
-        Long userId = app.getUserId();
-        if (userId != null) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            appVO.setUser(userVO);
-        }
+        // 关联查询用户信息（带本地缓存）
+        appVO.setUser(userService.getUserVOById(app.getUserId()));
         return appVO;
     }
 
@@ -490,13 +486,13 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         // 批量获取用户信息，避免 N+1 查询问题
         Set<Long> userIds = appList.stream()
                 .map(App::getUserId)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
-        Map<Long, UserVO> userVOMap = userService.listByIds(userIds).stream()
-                .collect(Collectors.toMap(User::getId, userService::getUserVO));
+        Map<Long, UserVO> userVOMap = userService.getUserVOMapByIds(userIds);
         return appList.stream().map(app -> {
-            AppVO appVO = getAppVO(app);
-            UserVO userVO = userVOMap.get(app.getUserId());
-            appVO.setUser(userVO);
+            AppVO appVO = new AppVO();
+            BeanUtil.copyProperties(app, appVO);
+            appVO.setUser(userVOMap.get(app.getUserId()));
             return appVO;
         }).collect(Collectors.toList());
     }
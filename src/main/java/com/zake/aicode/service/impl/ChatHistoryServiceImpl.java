@@ -8,6 +8,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.zake.aicode.constant.UserConstant;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.exception.ThrowUtils;
+import com.zake.aicode.manager.ChatHistoryBatchWriter;
 import com.zake.aicode.model.dto.chatHistory.ChatHistoryQueryRequest;
 import com.zake.aicode.model.entity.App;
 import com.zake.aicode.model.entity.ChatHistory;
@@ -37,13 +38,40 @@ import java.util.List;
 @Service
 public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatHistory> implements ChatHistoryService {
 
+    /**
+     * 加载历史前等待异步写入完成的最长时间
+     */
+    private static final long HISTORY_FLUSH_WAIT_MILLIS = 2000;
 
     @Lazy
     @Resource
     private AppService appService;
 
+    @Resource
+    private ChatHistoryBatchWriter chatHistoryBatchWriter;
+
     @Override
     public boolean addChatMessage(Long appId, String message, String messageType, Long userId) {
+        ChatHistory chatHistory = buildChatHistory(appId, message, messageType, userId);
+        return this.save(chatHistory);
+    }
+
+    @Override
+    public void addChatMessageAsync(Long appId, String message, String messageType, Long userId) {
+        ChatHistory chatHistory = buildChatHistory(appId, message, messageType, userId);
+        // 入队时就确定创建时间，保证消息顺序不受批量写入延迟影响
+        LocalDateTime now = LocalDateTime.now();
+        chatHistory.setCreateTime(now);
+        // 批量 INSERT 会写入所有列，NOT NULL 列不能留空
+        chatHistory.setUpdateTime(now);
+        chatHistory.setIsDelete(0);
+        chatHistoryBatchWriter.submit(chatHistory);
+    }
+
+    /**
+     * 校验参数并构造对话记录
+     */
+    private ChatHistory buildChatHistory(Long appId, String message, String messageType, Long userId) {
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR
                 , "应用ID不能为空");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "消息内容不能为空");
@@ -53,13 +81,12 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         // 验证消息类型是否有效
         ChatHistoryMessageTypeEnum messageTypeEnum = ChatHistoryMessageTypeEnum.getEnumByValue(messageType);
         ThrowUtils.throwIf(messageTypeEnum == null, ErrorCode.PARAMS_ERROR, "不支持的消息类型: " + messageType);
-        ChatHistory chatHistory = ChatHistory.builder()
+        return ChatHistory.builder()
                 .appId(appId)
                 .message(message)
                 .messageType(messageType)
                 .userId(userId)
                 .build();
-        return this.save(chatHistory);
     }
 
     @Override
@@ -144,6 +171,10 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Override
     public int loadChatHistoryToMemory(Long appId, MessageWindowChatMemory chatMemory, int maxCount) {
         try {
+            // 上一轮的 AI 回复可能还在异步写入队列中，先等待写完再读取
+            if (!chatHistoryBatchWriter.awaitFlushed(appId, HISTORY_FLUSH_WAIT_MILLIS)) {
+                log.warn("等待对话历史写入超时，加载的历史可能缺少最新记录，appId: {}", appId);
+            }
             // 直接构造查询条件，起始点为 1 而不是 0，用于排除最新的用户消息
             QueryWrapper queryWrapper = QueryWrapper.create()
                     .eq(ChatHistory::getAppId, appId)
@@ -2,110 +2,171 @@ package com.zake.aicode.service.impl;
 
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.core.util.ZipUtil;
+import com.zake.aicode.core.archive.ProjectArchiveCache;
+import com.zake.aicode.core.resource.FileSender;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
 import com.zake.aicode.exception.ThrowUtils;
 import com.zake.aicode.service.ProjectzDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
-import java.util.Set;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 项目下载服务实现类
+ * 压缩包由 {@link ProjectArchiveCache} 按内容缓存，支持 ETag 协商缓存和单区间断点续传
  */
 @Service
 @Slf4j
 public class ProjectDownloadServiceImpl implements ProjectzDownloadService {
 
+    /**
+     * 单个字节区间，多区间（含逗号）不匹配
+     */
+    private static final Pattern SINGLE_BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
 
     /**
      * 项目下载
      * @param projectPath 项目路径
      * @param downloadFileName 下载文件名
+     * @param request 请求
      * @param response 响应
      */
 
     @Override
-    public void downloadProjectAsZip(String projectPath, String downloadFileName, HttpServletResponse response) {
+    public void downloadProjectAsZip(String projectPath, String downloadFileName,
+                                     HttpServletRequest request, HttpServletResponse response) {
         // 基础校验
         ThrowUtils.throwIf(StrUtil.isBlank(projectPath), ErrorCode.PARAMS_ERROR, "项目路径不能为空");
         ThrowUtils.throwIf(StrUtil.isBlank(downloadFileName), ErrorCode.PARAMS_ERROR, "下载文件名不能为空");
         File projectDir = new File(projectPath);
         ThrowUtils.throwIf(!projectDir.exists(), ErrorCode.NOT_FOUND_ERROR, "项目目录不存在");
         ThrowUtils.throwIf(!projectDir.isDirectory(), ErrorCode.PARAMS_ERROR, "指定路径不是目录");
-        log.info("开始打包下载项目: {} -> {}.zip", projectPath, downloadFileName);
+        // 获取（必要时打包）当前内容对应的压缩包
+        ProjectArchiveCache.Archive archive = ProjectArchiveCache.getArchive(projectDir.toPath());
+        String etag = "\"" + archive.fingerprint() + "\"";
+        long size = archive.size();
         // 设置 HTTP 响应头
-        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader("ETag", etag);
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (etagMatches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
         response.setContentType("application/zip");
         response.addHeader("Content-Disposition",
                 String.format("attachment; filename=\"%s.zip\"", downloadFileName));
-        // 定义文件过滤器
-        FileFilter filter = file -> isPathAllowed(projectDir.toPath(), file.toPath());
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        ByteRange byteRange = StrUtil.isNotBlank(range) && (ifRange == null || ifRange.trim().equals(etag))
+                ? parseRange(range, size) : ByteRange.IGNORED;
+        if (byteRange == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Range", "bytes */" + size);
+            return;
+        }
+        if (byteRange != ByteRange.IGNORED) {
+            start = byteRange.start();
+            end = byteRange.end();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", String.format("bytes %d-%d/%d", start, end, size));
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        log.info("开始下载项目: {} -> {}.zip，{}-{}/{}", projectPath, downloadFileName, start, end, size);
         try {
-            // 使用 Hutool 的 ZipUtil 直接将过滤后的目录压缩到响应输出流
-            ZipUtil.zip(response.getOutputStream(), StandardCharsets.UTF_8,
-                    false, filter, projectDir);
-            log.info("项目打包下载完成: {}", downloadFileName);
-        } catch (Exception e) {
-            log.error("项目打包下载异常", e);
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目打包下载失败");
+            FileSender.send(archive.file(), start, length, request, response);
+        } catch (IOException e) {
+            log.error("项目下载异常", e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "项目下载失败");
         }
     }
 
     /**
-     * 需要过滤的文件和目录名称
+     * 判断 If-None-Match 是否匹配当前 ETag
      */
-    private static final Set<String> IGNORED_NAMES = Set.of(
-            "node_modules",
-            ".git",
-            "dist",
-            "build",
-            ".DS_Store",
-            ".env",
-            "target",
-            ".mvn",
-            ".idea",
-            ".vscode"
-    );
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (StrUtil.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     /**
-     * 需要过滤的文件扩展名
+     * 解析后的字节区间
+     *
+     * @param start 起始位置（含）
+     * @param end   结束位置（含）
      */
-    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
-            ".log",
-            ".tmp",
-            ".cache"
-    );
+    record ByteRange(long start, long end) {
+
+        /**
+         * Range 无效或不支持（非 bytes 单位、多区间、格式错误、起点大于终点），忽略后返回完整文件（200）
+         */
+        static final ByteRange IGNORED = new ByteRange(-1, -1);
+
+        /**
+         * 格式正确但无法满足（起点超出文件大小、后缀长度为 0），返回 416
+         */
+        static final ByteRange UNSATISFIABLE = new ByteRange(-2, -2);
+    }
 
     /**
-     * 检查路径是否允许包含在压缩包中
+     * 解析单个字节区间（bytes=start-end、bytes=start-、bytes=-suffix），按 RFC 9110 处理无效和无法满足的区间
      *
-     * @param projectRoot 项目根目录
-     * @param fullPath    完整路径
-     * @return 是否允许
+     * @return 字节区间，或 {@link ByteRange#IGNORED}、{@link ByteRange#UNSATISFIABLE}
      */
-    private boolean isPathAllowed(Path projectRoot, Path fullPath) {
-        // 获取相对路径
-        Path relativePath = projectRoot.relativize(fullPath);
-        // 检查路径中的每一部分
-        for (Path part : relativePath) {
-            String partName = part.toString();
-            // 检查是否在忽略名称列表中
-            if (IGNORED_NAMES.contains(partName)) {
-                return false;
+    static ByteRange parseRange(String range, long size) {
+        Matcher matcher = SINGLE_BYTE_RANGE.matcher(range.trim());
+        if (!matcher.matches()) {
+            return ByteRange.IGNORED;
+        }
+        String startPart = matcher.group(1);
+        String endPart = matcher.group(2);
+        try {
+            if (startPart.isEmpty()) {
+                if (endPart.isEmpty()) {
+                    return ByteRange.IGNORED;
+                }
+                // 最后 N 个字节
+                long suffix = Long.parseLong(endPart);
+                if (suffix <= 0 || size == 0) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(startPart);
+            long end = endPart.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endPart);
+            if (start > end) {
+                return ByteRange.IGNORED;
             }
-            // 检查文件扩展名
-            if (IGNORED_EXTENSIONS.stream().anyMatch(partName::endsWith)) {
-                return false;
+            if (start >= size) {
+                return ByteRange.UNSATISFIABLE;
             }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            // 数字超出范围
+            return ByteRange.IGNORED;
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,13 @@
 package com.zake.aicode.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.zake.aicode.exception.BusinessException;
 import com.zake.aicode.exception.ErrorCode;
+import com.zake.aicode.manager.LoginUserCache;
 import com.zake.aicode.mapper.UserMapper;
 import com.zake.aicode.model.dto.user.UserQueryRequest;
 import com.zake.aicode.model.entity.User;
@@ -11,13 +15,21 @@ import com.zake.aicode.model.enums.UserRoleEnum;
 import com.zake.aicode.model.vo.LoginUserVO;
 import com.zake.aicode.model.vo.UserVO;
 import com.zake.aicode.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.zake.aicode.constant.UserConstant.USER_LOGIN_STATE;
 
@@ -29,6 +41,23 @@ import static com.zake.aicode.constant.UserConstant.USER_LOGIN_STATE;
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
+    /**
+     * 用户 VO 本地缓存（应用列表等高频接口关联展示用户信息）
+     * 短 TTL 兜底，用户修改或删除时随登录用户缓存一起失效
+     */
+    private final Cache<Long, UserVO> userVOCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(60))
+            .build();
+
+    @Resource
+    private LoginUserCache loginUserCache;
+
+    @PostConstruct
+    public void initCache() {
+        loginUserCache.addInvalidationListener(userVOCache::invalidate);
+    }
+
     @Override
     public long userRegister(String userAccount, String userPassword, String checkPassword) {
 
@@ -142,9 +171,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (currentUser == null || currentUser.getId() == null) {
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR);
         }
-        //从数据哭查询
+        //从缓存获取最新用户信息，未命中时查询数据库
         long userId = currentUser.getId();
-        currentUser = this.getById(userId);
+        currentUser = loginUserCache.get(userId, this::getById);
         if (currentUser == null) {
             throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR);
         }
@@ -186,6 +215,43 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     }
 
 
+    @Override
+    public UserVO getUserVOById(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getUserVOMapByIds(List.of(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Long, UserVO> getUserVOMapByIds(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return Collections.emptyMap();
+        }
+        // 未命中的用户一次性批量查询
+        return userVOCache.getAll(userIds, missingIds -> this.listByIds(missingIds).stream()
+                .collect(Collectors.toMap(User::getId, this::getUserVO)));
+    }
+
+    @Override
+    public boolean updateById(User user) {
+        boolean result = super.updateById(user);
+        if (user != null) {
+            loginUserCache.invalidate(user.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean result = super.removeById(id);
+        if (id != null) {
+            loginUserCache.invalidate(Long.valueOf(id.toString()));
+        }
+        return result;
+    }
+
+
     @Override
     public QueryWrapper getQueryWrapper(UserQueryRequest userQueryRequest) {
         if (userQueryRequest == null) {
@@ -1,5 +1,6 @@
 package dev.langchain4j.service;
 
+import com.zake.aicode.ai.tools.BaseTool;
 import dev.langchain4j.Internal;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.agent.tool.ToolSpecification;
@@ -55,6 +56,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     private final List<ToolSpecification> toolSpecifications;
     private final Map<String, ToolExecutor> toolExecutors;
+    private final ParallelToolExecutor parallelToolExecutor;
     private final List<String> responseBuffer = new ArrayList<>();
     private final boolean hasOutputGuardrails;
 
@@ -92,6 +94,9 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
         this.toolSpecifications = copy(toolSpecifications);
         this.toolExecutors = copy(toolExecutors);
+        // Requests on different files run concurrently, keyed by the file tools' path argument
+        this.parallelToolExecutor = new ParallelToolExecutor(this.toolExecutors,
+                ParallelToolExecutor.pathArgument(BaseTool.FILE_PATH_ARGUMENT));
         this.hasOutputGuardrails = context.guardrailService().hasOutputGuardrails(methodKey);
     }
 
@@ -117,10 +122,12 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
-            for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
-                String toolName = toolExecutionRequest.name();
-                ToolExecutor toolExecutor = toolExecutors.get(toolName);
-                String toolExecutionResult = toolExecutor.execute(toolExecutionRequest, memoryId);
+            List<ToolExecutionRequest> toolExecutionRequests = aiMessage.toolExecutionRequests();
+            List<String> toolExecutionResults = parallelToolExecutor.execute(toolExecutionRequests, memoryId);
+            // Results are appended to memory in request order, regardless of completion order
+            for (int i = 0; i < toolExecutionRequests.size(); i++) {
+                ToolExecutionRequest toolExecutionRequest = toolExecutionRequests.get(i);
+                String toolExecutionResult = toolExecutionResults.get(i);
                 ToolExecutionResultMessage toolExecutionResultMessage =
                         ToolExecutionResultMessage.from(toolExecutionRequest, toolExecutionResult);
                 addToMemory(toolExecutionResultMessage);
@@ -0,0 +1,130 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.Internal;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.internal.Json;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Executes the tool requests of one model turn.
+ * Requests are grouped by a key taken from their arguments (e.g. the file they operate on): different groups run
+ * concurrently on virtual threads, requests within a group run in their original order. If any request has no key
+ * (e.g. a directory listing), the whole turn runs sequentially, since its outcome may depend on the others.
+ * Results are always returned in request order.
+ */
+@Internal
+class ParallelToolExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelToolExecutor.class);
+
+    private final Map<String, ToolExecutor> toolExecutors;
+    private final Function<ToolExecutionRequest, String> keyExtractor;
+
+    ParallelToolExecutor(Map<String, ToolExecutor> toolExecutors, Function<ToolExecutionRequest, String> keyExtractor) {
+        this.toolExecutors = toolExecutors;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Key extractor that reads a path argument and normalizes it, so that {@code a/../b.js} and {@code b.js} share
+     * a group.
+     *
+     * @param argumentName name of the tool argument holding the path
+     */
+    static Function<ToolExecutionRequest, String> pathArgument(String argumentName) {
+        return request -> {
+            try {
+                Map<?, ?> arguments = Json.fromJson(request.arguments(), Map.class);
+                if (arguments != null && arguments.get(argumentName) instanceof String path && !path.isBlank()) {
+                    return Paths.get(path.trim()).normalize().toString();
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Cannot read {} from tool arguments: {}", argumentName, request.arguments());
+            }
+            return null;
+        };
+    }
+
+    List<String> execute(List<ToolExecutionRequest> requests, Object memoryId) {
+        Map<String, List<Integer>> groups = groupByKey(requests);
+        if (groups == null || groups.size() <= 1) {
+            List<String> results = new ArrayList<>(requests.size());
+            for (ToolExecutionRequest request : requests) {
+                results.add(executeTool(request, memoryId));
+            }
+            return results;
+        }
+
+        String[] results = new String[requests.size()];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(groups.size());
+            for (List<Integer> group : groups.values()) {
+                futures.add(executor.submit(() -> {
+                    for (int index : group) {
+                        results[index] = executeTool(requests.get(index), memoryId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                awaitTool(future);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private String executeTool(ToolExecutionRequest toolExecutionRequest, Object memoryId) {
+        ToolExecutor toolExecutor = toolExecutors.get(toolExecutionRequest.name());
+        return toolExecutor.execute(toolExecutionRequest, memoryId);
+    }
+
+    private static void awaitTool(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Groups request indexes by key, preserving request order within each group.
+     *
+     * @return the groups, or {@code null} if some request has no key
+     */
+    private Map<String, List<Integer>> groupByKey(List<ToolExecutionRequest> requests) {
+        if (requests.size() < 2) {
+            return null;
+        }
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String key = keyExtractor.apply(requests.get(i));
+            if (key == null) {
+                return null;
+            }
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,409 @@
+// Vite 构建服务：由 Java 应用启动和守护，通过 stdin/stdout 按行交换 JSON 消息。
+// 每个项目保持一个 Vite watch 模式的构建实例（模块图和 Rollup 缓存常驻内存），重新构建时只转换变化的模块。
+// 构建只在有请求时进行：没有请求时文件变化触发的构建停在 buildStart 等待（不占 CPU，不绕过 Java 侧的构建调度）；
+// 收到请求后放行，并通过触发文件强制开始一轮构建，只采用请求到达之后才开始读取源码的那一轮结果，
+// 不依赖文件监听事件是否及时到达。结果再同步到项目的 dist 目录。
+//
+// 请求：{"id":1,"type":"build","projectDir":"...","outDir":"..."}
+// 响应：{"type":"ready"}
+//       {"id":1,"type":"log","line":"..."}
+//       {"id":1,"type":"result","success":true,"durationMs":1234}
+//       {"id":1,"type":"result","success":false,"fallback":true,"error":"..."}（fallback 表示应改用命令行构建）
+import { createRequire } from 'node:module'
+import { pathToFileURL } from 'node:url'
+import fs from 'node:fs'
+import path from 'node:path'
+import readline from 'node:readline'
+
+const MAX_PROJECTS = Number(process.env.BUILD_DAEMON_MAX_PROJECTS || 8)
+const IDLE_MS = Number(process.env.BUILD_DAEMON_IDLE_MS || 10 * 60 * 1000)
+const POLL_MS = 50
+// 迟迟没有开始构建时重新写入触发文件的间隔
+const RETRIGGER_MS = 2000
+const DIST_DIR = 'dist'
+const ANSI = /\x1b\[[0-9;]*[A-Za-z]/g
+
+// stdout 专用于协议消息，其他输出（包括 Vite 和插件的 console 输出）转到 stderr
+const protocolWrite = process.stdout.write.bind(process.stdout)
+process.stdout.write = process.stderr.write.bind(process.stderr)
+
+function send(message) {
+  protocolWrite(JSON.stringify(message) + '\n')
+}
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms))
+
+// vite 入口路径 -> 已加载的模块（保持预热）
+const viteModules = new Map()
+
+async function loadVite(projectDir) {
+  // 按 Node.js 的模块查找路径定位项目使用的 vite（不依赖其 exports 是否导出 package.json）
+  const require = createRequire(path.join(projectDir, 'package.json'))
+  const pkgPath = (require.resolve.paths('vite') || [])
+    .map((dir) => path.join(dir, 'vite', 'package.json'))
+    .find((file) => fs.existsSync(file))
+  if (!pkgPath) {
+    throw new Error(`项目未安装 vite: ${projectDir}`)
+  }
+  const pkg = JSON.parse(fs.readFileSync(pkgPath, 'utf8'))
+  const entry = pkg.exports?.['.']?.import
+  const relative = typeof entry === 'string' ? entry : entry?.default
+  if (!relative) {
+    throw new Error('无法解析 vite 的 ESM 入口')
+  }
+  const entryPath = path.resolve(path.dirname(pkgPath), relative)
+  if (!viteModules.has(entryPath)) {
+    viteModules.set(entryPath, await import(pathToFileURL(entryPath).href))
+  }
+  return viteModules.get(entryPath)
+}
+
+// 依赖或配置变化后需要重新创建构建实例
+function configStamp(projectDir) {
+  const files = ['package.json', 'node_modules/.deps-key', 'vite.config.js', 'vite.config.ts',
+    'vite.config.mjs', 'vite.config.mts', 'vite.config.cjs', 'vite.config.cts']
+  return files.map((file) => {
+    try {
+      return `${file}:${fs.statSync(path.join(projectDir, file)).mtimeMs}`
+    } catch {
+      return `${file}:-`
+    }
+  }).join('|')
+}
+
+// 构建闸门：关闭时 buildStart 挂起，打开后放行
+class Gate {
+  constructor() {
+    this.opened = false
+    this.waiters = []
+  }
+
+  wait() {
+    return this.opened ? Promise.resolve() : new Promise((resolve) => this.waiters.push(resolve))
+  }
+
+  set(opened) {
+    this.opened = opened
+    if (opened) {
+      this.waiters.splice(0).forEach((resolve) => resolve())
+    }
+  }
+}
+
+class ProjectBuild {
+  constructor(projectDir, outDir) {
+    this.projectDir = projectDir
+    this.outDir = outDir
+    // 触发文件在输出目录之外（输出目录会被清空），写入它即可让 watcher 开始新一轮构建
+    this.triggerFile = `${outDir}.trigger`
+    this.stamp = configStamp(projectDir)
+    this.watcher = null
+    this.gate = new Gate()
+    this.running = false
+    // 当前这一轮通过闸门（开始读取源码）的时间
+    this.cycleStartedAt = 0
+    this.lastCycleStartedAt = 0
+    this.lastEndAt = 0
+    this.cycleError = null
+    this.lastError = null
+    this.cycleLogs = []
+    this.listener = null
+    this.outputs = new Set()
+    this.assetsDir = 'assets'
+    this.lastUsed = Date.now()
+    this.busy = false
+    this.triggeredAt = 0
+  }
+
+  emitLog(message) {
+    for (const line of String(message).replace(ANSI, '').split('\n')) {
+      if (!line.trim()) {
+        continue
+      }
+      this.cycleLogs.push(line)
+      if (this.cycleLogs.length > 500) {
+        this.cycleLogs.shift()
+      }
+      this.listener?.(line)
+    }
+  }
+
+  trigger() {
+    fs.mkdirSync(path.dirname(this.triggerFile), { recursive: true })
+    fs.writeFileSync(this.triggerFile, String(Date.now()))
+    this.triggeredAt = Date.now()
+  }
+
+  async start() {
+    this.trigger()
+    const vite = await loadVite(this.projectDir)
+    const logger = {
+      hasWarned: false,
+      info: (msg) => this.emitLog(msg),
+      warn: (msg) => this.emitLog(msg),
+      warnOnce: (msg) => this.emitLog(msg),
+      error: (msg) => this.emitLog(msg),
+      clearScreen: () => {},
+      hasErrorLogged: () => false,
+    }
+    const self = this
+    this.watcher = await vite.build({
+      root: this.projectDir,
+      mode: 'production',
+      logLevel: 'info',
+      clearScreen: false,
+      customLogger: logger,
+      build: {
+        outDir: this.outDir,
+        emptyOutDir: true,
+        watch: {},
+      },
+      plugins: [{
+        name: 'build-daemon:outputs',
+        apply: 'build',
+        configResolved(config) {
+          self.assetsDir = config.build.assetsDir || 'assets'
+        },
+        // 没有构建请求时挂起，文件变化不会立即触发构建
+        async buildStart() {
+          this.addWatchFile(self.triggerFile)
+          await self.gate.wait()
+          self.cycleStartedAt = Date.now()
+        },
+        writeBundle(options, bundle) {
+          self.outputs = new Set(Object.keys(bundle))
+        },
+      }],
+    })
+    this.watcher.on('event', (event) => {
+      if (event.code === 'START') {
+        this.running = true
+        this.cycleError = null
+        this.cycleLogs = []
+      } else if (event.code === 'ERROR') {
+        this.cycleError = event.error
+      } else if (event.code === 'END') {
+        this.running = false
+        this.lastError = this.cycleError
+        this.lastCycleStartedAt = this.cycleStartedAt
+        this.lastEndAt = Date.now()
+      }
+    })
+  }
+
+  // 最近结束的一轮构建是否在 since 之后才开始读取源码
+  isFreshSince(since) {
+    return !this.running && this.lastEndAt > 0 && this.lastCycleStartedAt >= since
+  }
+
+  async close() {
+    // 放行挂起的构建，避免关闭时卡住
+    this.gate.set(true)
+    try {
+      await this.watcher?.close()
+    } catch {
+      // 忽略关闭失败
+    }
+  }
+}
+
+// 项目目录 -> 构建实例（按最近使用排序）
+const projects = new Map()
+
+async function getProject(projectDir, outDir) {
+  let project = projects.get(projectDir)
+  if (project && project.stamp !== configStamp(projectDir)) {
+    projects.delete(projectDir)
+    await project.close()
+    project = null
+  }
+  if (!project) {
+    await evict()
+    project = new ProjectBuild(projectDir, outDir)
+    projects.set(projectDir, project)
+    try {
+      await project.start()
+    } catch (error) {
+      projects.delete(projectDir)
+      await project.close()
+      error.fallback = true
+      throw error
+    }
+  } else {
+    // 移到末尾，标记为最近使用
+    projects.delete(projectDir)
+    projects.set(projectDir, project)
+  }
+  project.lastUsed = Date.now()
+  return project
+}
+
+async function evict() {
+  for (const [projectDir, project] of projects) {
+    if (projects.size < MAX_PROJECTS) {
+      break
+    }
+    if (!project.busy) {
+      projects.delete(projectDir)
+      await project.close()
+    }
+  }
+}
+
+// 删除 watch 模式下历次构建遗留的带哈希资源，只保留最近一次构建的产物
+function pruneAssets(project) {
+  const assetsRoot = path.join(project.outDir, project.assetsDir)
+  if (project.outputs.size === 0 || !fs.existsSync(assetsRoot)) {
+    return
+  }
+  for (const file of walk(assetsRoot)) {
+    const relative = path.relative(project.outDir, file).split(path.sep).join('/')
+    if (!project.outputs.has(relative)) {
+      fs.rmSync(file, { force: true })
+    }
+  }
+}
+
+function* walk(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const full = path.join(dir, entry.name)
+    if (entry.isDirectory()) {
+      yield* walk(full)
+    } else if (entry.isFile()) {
+      yield full
+    }
+  }
+}
+
+function sameContent(a, b) {
+  const statA = fs.statSync(a)
+  let statB
+  try {
+    statB = fs.statSync(b)
+  } catch {
+    return false
+  }
+  return statA.size === statB.size && fs.readFileSync(a).equals(fs.readFileSync(b))
+}
+
+// 把构建产物同步到 dist：只写入内容变化的文件（先写临时文件再重命名），删除不再存在的文件
+function mirror(srcDir, destDir) {
+  const kept = new Set()
+  for (const file of walk(srcDir)) {
+    const relative = path.relative(srcDir, file)
+    kept.add(relative)
+    const dest = path.join(destDir, relative)
+    if (sameContent(file, dest)) {
+      continue
+    }
+    fs.mkdirSync(path.dirname(dest), { recursive: true })
+    const temp = `${dest}.${process.pid}.${Date.now()}.tmp`
+    fs.copyFileSync(file, temp)
+    fs.renameSync(temp, dest)
+  }
+  if (!fs.existsSync(destDir)) {
+    return
+  }
+  for (const file of walk(destDir)) {
+    const relative = path.relative(destDir, file)
+    if (kept.has(relative)) {
+      continue
+    }
+    // 保留仍有效的预压缩文件
+    const base = relative.replace(/\.(gz|br)$/, '')
+    if (base !== relative && kept.has(base)) {
+      continue
+    }
+    fs.rmSync(file, { force: true })
+  }
+}
+
+let inflight = 0
+let inputClosed = false
+
+async function handleBuild(request) {
+  inflight++
+  const start = Date.now()
+  let project = null
+  try {
+    project = await getProject(request.projectDir, request.outDir)
+    project.busy = true
+    project.listener = (line) => send({ id: request.id, type: 'log', line })
+    // 补发本轮构建已经产生的输出
+    for (const line of project.cycleLogs) {
+      send({ id: request.id, type: 'log', line })
+    }
+    const requestedAt = Date.now()
+    project.gate.set(true)
+    if (!project.running) {
+      // 没有挂起的构建时强制开始一轮
+      project.trigger()
+    }
+    while (!project.isFreshSince(requestedAt)) {
+      await sleep(POLL_MS)
+      if (!project.running && Date.now() - project.triggeredAt >= RETRIGGER_MS) {
+        project.trigger()
+      }
+    }
+    if (project.lastError) {
+      throw project.lastError
+    }
+    pruneAssets(project)
+    mirror(project.outDir, path.join(request.projectDir, DIST_DIR))
+    send({ id: request.id, type: 'result', success: true, durationMs: Date.now() - start })
+  } catch (error) {
+    send({
+      id: request.id,
+      type: 'result',
+      success: false,
+      fallback: Boolean(error?.fallback),
+      error: String(error?.message || error).replace(ANSI, ''),
+      durationMs: Date.now() - start,
+    })
+  } finally {
+    if (project) {
+      project.gate.set(false)
+      project.listener = null
+      project.busy = false
+      project.lastUsed = Date.now()
+    }
+    inflight--
+    if (inputClosed && inflight === 0) {
+      process.exit(0)
+    }
+  }
+}
+
+// 关闭长时间未使用的构建实例，释放内存
+setInterval(() => {
+  const now = Date.now()
+  for (const [projectDir, project] of projects) {
+    if (!project.busy && now - project.lastUsed > IDLE_MS) {
+      projects.delete(projectDir)
+      project.close()
+    }
+  }
+}, 60 * 1000).unref()
+
+const input = readline.createInterface({ input: process.stdin })
+input.on('line', (line) => {
+  let request
+  try {
+    request = JSON.parse(line)
+  } catch {
+    process.stderr.write(`无法解析请求: ${line}\n`)
+    return
+  }
+  if (request.type === 'build') {
+    handleBuild(request)
+  }
+})
+// Java 进程退出（stdin 关闭）后，处理完已收到的请求随之退出
+input.on('close', () => {
+  inputClosed = true
+  if (inflight === 0) {
+    process.exit(0)
+  }
+})
+
+send({ type: 'ready' })
@@ -1,5 +1,7 @@
 package com.zake.aicode.ai;
 
+import com.zake.aicode.ai.model.message.AiResponseMessage;
+import com.zake.aicode.ai.model.message.StreamMessage;
 import com.zake.aicode.core.AiCodeGeneratorFacade;
 import com.zake.aicode.model.enums.CodeGenTypeEnum;
 import jakarta.annotation.Resource;
@@ -20,11 +22,13 @@ class AiCodeGeneratorFacadeTest {
 
     @Test
     void generateVueProjectCodeStream() {
-        Flux<String> codeStream = aiCodeGeneratorFacade. generateAndSaveCodeStream(
+        Flux<StreamMessage> codeStream = aiCodeGeneratorFacade. generateAndSaveCodeStream(
                 "简单的任务记录网站，总代码量不超过 200 行",
                 CodeGenTypeEnum.VUE_PROJECT, 1L);
         // 阻塞等待所有数据收集完成
-        List<String> result = codeStream.collectList().block();
+        List<String> result = codeStream.ofType(AiResponseMessage.class)
+                .map(AiResponseMessage::getData)
+                .collectList().block();
         // 验证结果
         Assertions.assertNotNull(result);
         String completeContent = String.join("", result);
@@ -38,9 +42,11 @@ class AiCodeGeneratorFacadeTest {
 
     @Test
     void generateAndSaveCodeStream() {
-        Flux<String> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream("任务记录网站", CodeGenTypeEnum.MULTI_FILE, 1L);
+        Flux<StreamMessage> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream("任务记录网站", CodeGenTypeEnum.MULTI_FILE, 1L);
         // 阻塞等待所有数据收集完成
-        List<String> result = codeStream.collectList().block();
+        List<String> result = codeStream.ofType(AiResponseMessage.class)
+                .map(AiResponseMessage::getData)
+                .collectList().block();
         // 验证结果
         Assertions.assertNotNull(result);
         String completeContent = String.join("", result);
@@ -0,0 +1,54 @@
+package com.zake.aicode.ai;
+
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeGenTypeRouterTest {
+
+    private static CodeGenTypeEnum preRoute(String prompt) {
+        return CodeGenTypeRouter.preRoute(CodeGenTypeRouter.normalize(prompt));
+    }
+
+    @Test
+    void explicitTechnologyIsDecisive() {
+        assertEquals(CodeGenTypeEnum.VUE_PROJECT, preRoute("用 Vue 做一个待办清单"));
+        assertEquals(CodeGenTypeEnum.MULTI_FILE, preRoute("做一个作品集网站，HTML、CSS、JS 分离"));
+        assertEquals(CodeGenTypeEnum.HTML, preRoute("用单个 HTML 文件实现一个计算器"));
+    }
+
+    @Test
+    void typicalScenariosArePreRouted() {
+        assertEquals(CodeGenTypeEnum.VUE_PROJECT, preRoute("做一个电商商城，包含购物车和订单"));
+        assertEquals(CodeGenTypeEnum.HTML, preRoute("产品发布的落地页"));
+    }
+
+    @Test
+    void ambiguousPromptsFallBackToModel() {
+        assertNull(preRoute("做一个个人博客"));
+        // 只有一个复杂场景关键词，不够确定
+        assertNull(preRoute("做一个数据管理页面"));
+        // 同时指定了多种方案
+        assertNull(preRoute("用 vue 或者单个 html 都行"));
+    }
+
+    @Test
+    void explicitKeywordsDoNotMatchInsideOtherWords() {
+        // “前端工程师”不是指定工程化项目
+        assertEquals(CodeGenTypeEnum.HTML, preRoute("给前端工程师做个人简历页"));
+    }
+
+    @Test
+    void negatedKeywordsFallBackToModel() {
+        assertNull(preRoute("不要用 vue，做一个待办清单"));
+        assertNull(preRoute("不用Vue，简单做个计算器"));
+        assertNull(preRoute("不需要多文件"));
+        assertNull(preRoute("做个博客 without vue"));
+    }
+
+    @Test
+    void normalizeCollapsesWhitespaceAndCase() {
+        assertEquals("hello world", CodeGenTypeRouter.normalize("  Hello \n\t WORLD "));
+    }
+}
@@ -0,0 +1,107 @@
+package com.zake.aicode.core.admission;
+
+import com.zake.aicode.config.GenerationAdmissionConfig;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationAdmissionControllerTest {
+
+    private final GenerationAdmissionController controller = new GenerationAdmissionController();
+
+    /**
+     * 已开始的生成（按开始顺序）
+     */
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    /**
+     * 每个生成对应的完成信号
+     */
+    private final Map<String, Sinks.One<String>> finishers = new ConcurrentHashMap<>();
+
+    /**
+     * 每个生成收到的排队位置
+     */
+    private final Map<String, List<Integer>> positions = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        GenerationAdmissionConfig config = new GenerationAdmissionConfig();
+        config.setProviders(Map.of("streaming", 1));
+        ReflectionTestUtils.setField(controller, "generationAdmissionConfig", config);
+        ReflectionTestUtils.setField(controller, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void queuedRequestsAreAdmittedRoundRobinPerUser() throws InterruptedException {
+        submit("a1", 1L);
+        submit("a2", 1L);
+        submit("b1", 2L);
+        submit("a3", 1L);
+        assertEquals(List.of("a1"), started);
+        // 同一用户连续提交的 a3 排在其他用户的 b1 之后
+        assertEquals(List.of(1), positions.get("a2"));
+        assertEquals(List.of(2), positions.get("b1"));
+        assertEquals(List.of(3), positions.get("a3"));
+
+        finish("a1");
+        awaitStarted(2);
+        assertEquals(List.of(3, 2), positions.get("a3"));
+        finish("a2");
+        awaitStarted(3);
+        finish("b1");
+        awaitStarted(4);
+        assertEquals(List.of("a1", "a2", "b1", "a3"), started);
+    }
+
+    @Test
+    void cancelledWaiterReleasesItsQueueSlot() throws InterruptedException {
+        submit("a1", 1L);
+        Disposable b1 = submit("b1", 2L);
+        submit("c1", 3L);
+        assertEquals(List.of(2), positions.get("c1"));
+
+        b1.dispose();
+        assertEquals(List.of(2, 1), positions.get("c1"));
+        finish("a1");
+        awaitStarted(2);
+        assertEquals(List.of("a1", "c1"), started);
+    }
+
+    private Disposable submit(String name, Long userId) {
+        Sinks.One<String> finisher = Sinks.one();
+        finishers.put(name, finisher);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        positions.put(name, received);
+        Flux<String> stream = controller.admit(userId, CodeGenTypeEnum.HTML, () -> {
+            started.add(name);
+            return finisher.asMono().flux();
+        });
+        return stream.contextWrite(GenerationAdmissionController.queuePositionListener(received::add))
+                .subscribe();
+    }
+
+    private void finish(String name) {
+        finishers.get(name).tryEmitValue(name);
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (started.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, started.size());
+    }
+}
@@ -0,0 +1,48 @@
+package com.zake.aicode.core.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectArchiveCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void archiveIsReusedUntilProjectChanges() throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve("vue_project_archive_test_" + System.nanoTime()));
+        Files.writeString(project.resolve("index.html"), "<html></html>");
+        Files.createDirectories(project.resolve("src"));
+        Files.writeString(project.resolve("src/main.js"), "console.log(1)");
+        Files.createDirectories(project.resolve("node_modules/vue"));
+        Files.writeString(project.resolve("node_modules/vue/index.js"), "ignored");
+        Files.writeString(project.resolve("debug.log"), "ignored");
+
+        ProjectArchiveCache.Archive first = ProjectArchiveCache.getArchive(project);
+        assertEquals(List.of("index.html", "src/main.js"), entryNames(first.file()));
+        assertEquals(first, ProjectArchiveCache.getArchive(project));
+
+        Files.writeString(project.resolve("src/app.js"), "export default {}", StandardCharsets.UTF_8);
+        ProjectArchiveCache.invalidate(project);
+        ProjectArchiveCache.Archive second = ProjectArchiveCache.getArchive(project);
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+        assertEquals(List.of("index.html", "src/app.js", "src/main.js"), entryNames(second.file()));
+    }
+
+    private static List<String> entryNames(Path archive) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            return Collections.list(zipFile.entries()).stream().map(ZipEntry::getName).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.zake.aicode.core.builder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void unchangedSourcesSkipTheBuild() throws IOException {
+        BuildCoordinator coordinator = new BuildCoordinator();
+        Path project = createProject();
+        AtomicInteger builds = new AtomicInteger();
+
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertEquals(1, builds.get());
+
+        // 依赖和构建产物的变化不影响指纹
+        Files.writeString(project.resolve("node_modules/vue/index.js"), "changed");
+        Files.writeString(project.resolve("package-lock.json"), "{}");
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertEquals(1, builds.get());
+
+        Files.writeString(project.resolve("src/App.vue"), "<template>v2</template>");
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void envFileChangeTriggersRebuild() throws IOException {
+        BuildCoordinator coordinator = new BuildCoordinator();
+        Path project = createProject();
+        AtomicInteger builds = new AtomicInteger();
+        Files.writeString(project.resolve(".env"), "VITE_TITLE=v1");
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+
+        // Vite 构建时读取 .env，变化后必须重新构建
+        Files.writeString(project.resolve(".env"), "VITE_TITLE=v2");
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void failedBuildIsRetried() throws IOException {
+        BuildCoordinator coordinator = new BuildCoordinator();
+        Path project = createProject();
+        assertFalse(coordinator.build(project, () -> false));
+        AtomicInteger builds = new AtomicInteger();
+        assertTrue(coordinator.build(project, fakeBuild(project, builds)));
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void concurrentBuildsAreCoalesced() throws Exception {
+        BuildCoordinator coordinator = new BuildCoordinator();
+        Path project = createProject();
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BooleanSupplier slowBuild = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return fakeBuild(project, builds).getAsBoolean();
+        };
+        boolean[] results = new boolean[2];
+        Thread first = Thread.startVirtualThread(() -> results[0] = coordinator.build(project, slowBuild));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread second = Thread.startVirtualThread(() -> results[1] = coordinator.build(project, slowBuild));
+        Thread.sleep(100);
+        release.countDown();
+        first.join();
+        second.join();
+        assertTrue(results[0]);
+        assertTrue(results[1]);
+        assertEquals(1, builds.get());
+    }
+
+    private Path createProject() throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve("vue_project_" + System.nanoTime()));
+        Files.writeString(project.resolve("package.json"), "{\"name\":\"demo\"}");
+        Files.createDirectories(project.resolve("src"));
+        Files.writeString(project.resolve("src/App.vue"), "<template>v1</template>");
+        Files.createDirectories(project.resolve("node_modules/vue"));
+        Files.writeString(project.resolve("node_modules/vue/index.js"), "export default {}");
+        return project;
+    }
+
+    private static BooleanSupplier fakeBuild(Path project, AtomicInteger builds) {
+        return () -> {
+            builds.incrementAndGet();
+            try {
+                Files.createDirectories(project.resolve("dist"));
+                Files.writeString(project.resolve("dist/index.html"), "<html></html>");
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
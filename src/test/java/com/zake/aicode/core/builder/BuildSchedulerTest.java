@@ -0,0 +1,99 @@
+package com.zake.aicode.core.builder;
+
+import com.zake.aicode.config.VueBuildConfig;
+import com.zake.aicode.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildSchedulerTest {
+
+    private final BuildScheduler scheduler = new BuildScheduler();
+
+    private final VueBuildConfig config = new VueBuildConfig();
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config.setWorkers(1);
+        config.setMaxQueueSize(3);
+        ReflectionTestUtils.setField(scheduler, "vueBuildConfig", config);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        scheduler.initMetrics();
+    }
+
+    @Test
+    void queuedBuildsRunByPriority() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = scheduler.submit(Path.of("p0"), BuildPriority.PREVIEW, blockingBuild("p0", release));
+        CompletableFuture<Boolean> preview = scheduler.submit(Path.of("p1"), BuildPriority.PREVIEW, build("p1"));
+        CompletableFuture<Boolean> workflow = scheduler.submit(Path.of("p2"), BuildPriority.WORKFLOW, build("p2"));
+        CompletableFuture<Boolean> deploy = scheduler.submit(Path.of("p3"), BuildPriority.DEPLOY, build("p3"));
+        assertEquals(3, scheduler.queueSize());
+
+        release.countDown();
+        CompletableFuture.allOf(running, preview, workflow, deploy).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("p0", "p3", "p2", "p1"), started);
+        assertEquals(0, scheduler.runningCount());
+    }
+
+    @Test
+    void queuedBuildOfSameProjectIsSharedAndBoosted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = scheduler.submit(Path.of("p0"), BuildPriority.DEPLOY, blockingBuild("p0", release));
+        CompletableFuture<Boolean> other = scheduler.submit(Path.of("p1"), BuildPriority.WORKFLOW, build("p1"));
+        CompletableFuture<Boolean> preview = scheduler.submit(Path.of("p2"), BuildPriority.PREVIEW, build("p2"));
+        CompletableFuture<Boolean> deploy = scheduler.submit(Path.of("p2"), BuildPriority.DEPLOY, build("p2-again"));
+        assertSame(preview, deploy);
+        assertEquals(2, scheduler.queueSize());
+
+        release.countDown();
+        CompletableFuture.allOf(running, other, deploy).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("p0", "p2", "p1"), started);
+    }
+
+    @Test
+    void fullQueueRejectsBuilds() {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(Path.of("p0"), BuildPriority.PREVIEW, blockingBuild("p0", release));
+        for (int i = 1; i <= 3; i++) {
+            scheduler.submit(Path.of("p" + i), BuildPriority.PREVIEW, build("p" + i));
+        }
+        CompletableFuture<Boolean> rejected = scheduler.submit(Path.of("p4"), BuildPriority.DEPLOY, build("p4"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, e.getCause());
+        release.countDown();
+    }
+
+    private BooleanSupplier build(String name) {
+        return () -> {
+            started.add(name);
+            return true;
+        };
+    }
+
+    private BooleanSupplier blockingBuild(String name, CountDownLatch release) {
+        return () -> {
+            started.add(name);
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.zake.aicode.core.builder;
+
+import com.zake.aicode.config.VueBuildConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeModulesCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void projectsWithSameDependenciesShareOneInstall() throws IOException {
+        NodeModulesCache cache = new NodeModulesCache(tempDir.resolve("store"), new VueBuildConfig());
+        Path first = createProject("vue_project_1", "{\"dependencies\":{\"vue\":\"^3.5.0\"}}");
+        Path second = createProject("vue_project_2", "{\"dependencies\":{\"vue\":\"^3.5.0\"}}");
+        AtomicInteger installs = new AtomicInteger();
+
+        assertTrue(cache.install(first, fakeInstall(first, installs)));
+        assertTrue(cache.install(second, fakeInstall(second, installs)));
+        assertEquals(1, installs.get());
+        Path linked = second.resolve("node_modules/vue/index.js");
+        assertEquals("export default {}", Files.readString(linked));
+        assertTrue(Files.isSameFile(first.resolve("node_modules/vue/index.js"), linked));
+        assertTrue(Files.isSymbolicLink(second.resolve("node_modules/.bin/vite")));
+
+        // 依赖未变化时直接跳过
+        assertTrue(cache.install(second, fakeInstall(second, installs)));
+        assertEquals(1, installs.get());
+
+        // 依赖变化后重新安装，不影响已缓存的文件
+        Files.writeString(second.resolve("package.json"), "{\"dependencies\":{\"vue\":\"^3.6.0\"}}");
+        assertTrue(cache.install(second, fakeInstall(second, installs)));
+        assertEquals(2, installs.get());
+        assertEquals("export default {}", Files.readString(first.resolve("node_modules/vue/index.js")));
+    }
+
+    @Test
+    void failedInstallIsNotCached() throws IOException {
+        NodeModulesCache cache = new NodeModulesCache(tempDir.resolve("store"), new VueBuildConfig());
+        Path project = createProject("vue_project_3", "{\"dependencies\":{}}");
+        assertFalse(cache.install(project, () -> false));
+        AtomicInteger installs = new AtomicInteger();
+        assertTrue(cache.install(project, fakeInstall(project, installs)));
+        assertEquals(1, installs.get());
+    }
+
+    @Test
+    void lockfileWrittenByInstallDoesNotInvalidateMarker() throws IOException {
+        NodeModulesCache cache = new NodeModulesCache(tempDir.resolve("store"), new VueBuildConfig());
+        Path first = createProject("vue_project_4", "{\"dependencies\":{\"vue\":\"^3.5.0\"}}");
+        Path second = createProject("vue_project_5", "{\"dependencies\":{\"vue\":\"^3.5.0\"}}");
+        AtomicInteger installs = new AtomicInteger();
+
+        assertTrue(cache.install(first, withLockfile(first, fakeInstall(first, installs))));
+        assertTrue(Files.exists(first.resolve("package-lock.json")));
+        // 安装生成的锁文件不会导致下次构建重新安装
+        assertTrue(cache.install(first, withLockfile(first, fakeInstall(first, installs))));
+        assertEquals(1, installs.get());
+        assertTrue(Files.exists(first.resolve("node_modules/vue/index.js")));
+
+        // 没有锁文件的相同项目仍命中安装前的 key
+        assertTrue(cache.install(second, withLockfile(second, fakeInstall(second, installs))));
+        assertEquals(1, installs.get());
+        assertEquals("export default {}", Files.readString(second.resolve("node_modules/vue/index.js")));
+    }
+
+    private Path createProject(String name, String packageJson) throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(project.resolve("package.json"), packageJson);
+        return project;
+    }
+
+    private static BooleanSupplier fakeInstall(Path project, AtomicInteger installs) {
+        return () -> {
+            installs.incrementAndGet();
+            try {
+                Path nodeModules = project.resolve("node_modules");
+                Files.createDirectories(nodeModules.resolve("vue"));
+                Files.writeString(nodeModules.resolve("vue/index.js"), "export default {}");
+                Files.createDirectories(nodeModules.resolve(".bin"));
+                Files.createSymbolicLink(nodeModules.resolve(".bin/vite"), Path.of("../vite/bin/vite.js"));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static BooleanSupplier withLockfile(Path project, BooleanSupplier installer) {
+        return () -> {
+            boolean success = installer.getAsBoolean();
+            try {
+                Files.writeString(project.resolve("package-lock.json"), "{\"lockfileVersion\":3}");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return success;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.zake.aicode.core.builder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class ProcessRunnerTest {
+
+    @Test
+    void chattyProcessDoesNotBlockOnFullPipes() throws Exception {
+        AtomicInteger lines = new AtomicInteger();
+        // 两个流各输出远超管道缓冲区大小的内容
+        ProcessBuilder processBuilder = new ProcessBuilder("sh", "-c",
+                "i=0; while [ $i -lt 20000 ]; do echo \"out line $i\"; echo \"err line $i\" >&2; i=$((i+1)); done");
+        ProcessRunner.Result result = ProcessRunner.run(processBuilder, Duration.ofSeconds(30), line -> lines.incrementAndGet());
+        assertTrue(result.isSuccess());
+        assertEquals(40000, lines.get());
+    }
+
+    @Test
+    void hungProcessIsKilledOnTimeout() throws Exception {
+        ProcessBuilder processBuilder = new ProcessBuilder("sh", "-c", "echo started; sleep 30");
+        ProcessRunner.Result result = ProcessRunner.run(processBuilder, Duration.ofMillis(500), line -> {
+        });
+        assertTrue(result.timedOut());
+        assertFalse(result.isSuccess());
+        assertTrue(result.durationMs() < 10_000);
+    }
+
+    @Test
+    void buildLogKeepsOnlyRecentLines() {
+        BuildLog buildLog = new BuildLog("vue_project_1", 3);
+        for (int i = 1; i <= 5; i++) {
+            buildLog.append("line " + i);
+        }
+        buildLog.phase("build", 1200, true);
+        buildLog.finish(true);
+        List<ServerSentEvent<String>> events = buildLog.attach(0).collectList().block(Duration.ofSeconds(5));
+        assertNotNull(events);
+        assertEquals(List.of("5", "6", "7"), events.stream().map(ServerSentEvent::id).toList());
+        assertEquals("phase", events.get(1).event());
+        assertEquals("done", events.get(2).event());
+    }
+}
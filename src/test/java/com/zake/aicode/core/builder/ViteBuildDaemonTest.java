@@ -0,0 +1,161 @@
+package com.zake.aicode.core.builder;
+
+import com.zake.aicode.config.VueBuildConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ViteBuildDaemonTest {
+
+    /**
+     * 模拟 vite 的 watch 模式构建：监听的文件（源码和 addWatchFile 登记的文件）变化时重新构建，
+     * 每轮把 src/main.js 的内容写入产物，并额外写入一个不在最终产物中的资源
+     */
+    private static final String FAKE_VITE = """
+            import { EventEmitter } from 'node:events'
+            import fs from 'node:fs'
+            import path from 'node:path'
+            export async function build(config) {
+              const watcher = new EventEmitter()
+              const watched = new Set()
+              const outDir = config.build.outDir
+              const plugin = config.plugins[0]
+              const source = path.join(config.root, 'src/main.js')
+              let running = false
+              let rerun = false
+              plugin.configResolved({ build: { assetsDir: 'assets' } })
+              const watch = (file) => {
+                if (!watched.has(file)) {
+                  watched.add(file)
+                  fs.watchFile(file, { interval: 20 }, () => run())
+                }
+              }
+              const run = async () => {
+                if (running) {
+                  rerun = true
+                  return
+                }
+                running = true
+                watcher.emit('event', { code: 'START' })
+                await plugin.buildStart.call({ addWatchFile: watch })
+                const code = fs.readFileSync(source, 'utf8')
+                config.customLogger.info('built in 10ms')
+                fs.mkdirSync(path.join(outDir, 'assets'), { recursive: true })
+                fs.writeFileSync(path.join(outDir, 'index.html'), '<html></html>')
+                fs.writeFileSync(path.join(outDir, 'assets/index-abc.js'), code)
+                fs.writeFileSync(path.join(outDir, 'assets/index-old.js'), 'console.log(0)')
+                plugin.writeBundle({ dir: outDir }, { 'index.html': {}, 'assets/index-abc.js': {} })
+                running = false
+                watcher.emit('event', { code: 'END' })
+                if (rerun) {
+                  rerun = false
+                  run()
+                }
+              }
+              watch(source)
+              watcher.close = async () => watched.forEach((file) => fs.unwatchFile(file))
+              setTimeout(run, 20)
+              return watcher
+            }
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private ViteBuildDaemon daemon;
+
+    @BeforeEach
+    void setUp() {
+        daemon = new ViteBuildDaemon(tempDir.resolve("daemon"));
+        ReflectionTestUtils.setField(daemon, "vueBuildConfig", new VueBuildConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemon.shutdown();
+    }
+
+    @Test
+    void buildsIntoDistAndDropsStaleFiles() throws IOException {
+        assumeTrue(ProcessRunner.isOnPath("node"), "需要 Node.js");
+        Path project = createProject("vue_project_1", true);
+        Path dist = Files.createDirectories(project.resolve("dist/assets"));
+        Files.writeString(dist.resolve("stale.js"), "stale");
+        Files.writeString(project.resolve("dist/index.html.gz"), "gz");
+
+        List<String> output = new CopyOnWriteArrayList<>();
+        assertEquals(ViteBuildDaemon.Outcome.SUCCESS, daemon.build(project, Duration.ofSeconds(30), output::add));
+        assertTrue(output.contains("built in 10ms"));
+        assertEquals("<html></html>", Files.readString(project.resolve("dist/index.html")));
+        assertEquals("v1", Files.readString(project.resolve("dist/assets/index-abc.js")));
+        assertFalse(Files.exists(project.resolve("dist/assets/index-old.js")));
+        assertFalse(Files.exists(dist.resolve("stale.js")));
+        // 源文件仍存在的预压缩文件保留
+        assertTrue(Files.exists(project.resolve("dist/index.html.gz")));
+    }
+
+    @Test
+    void rebuildsOnlyOnRequestAndAlwaysSeesLatestSource() throws Exception {
+        assumeTrue(ProcessRunner.isOnPath("node"), "需要 Node.js");
+        Path project = createProject("vue_project_4", true);
+        assertEquals(ViteBuildDaemon.Outcome.SUCCESS, daemon.build(project, Duration.ofSeconds(30), line -> {
+        }));
+        assertEquals("v1", Files.readString(project.resolve("dist/assets/index-abc.js")));
+
+        // 没有构建请求时，源码变化不会触发构建
+        Files.writeString(project.resolve("src/main.js"), "v2");
+        Thread.sleep(500);
+        Path output = tempDir.resolve("daemon/out/vue_project_4/assets/index-abc.js");
+        assertEquals("v1", Files.readString(output));
+
+        // 请求到来时的构建一定读取到最新源码
+        assertEquals(ViteBuildDaemon.Outcome.SUCCESS, daemon.build(project, Duration.ofSeconds(30), line -> {
+        }));
+        assertEquals("v2", Files.readString(project.resolve("dist/assets/index-abc.js")));
+    }
+
+    @Test
+    void projectWithoutViteFallsBackToCli() throws IOException {
+        assumeTrue(ProcessRunner.isOnPath("node"), "需要 Node.js");
+        Path project = createProject("vue_project_2", false);
+        assertEquals(ViteBuildDaemon.Outcome.UNAVAILABLE, daemon.build(project, Duration.ofSeconds(30), line -> {
+        }));
+    }
+
+    @Test
+    void disabledDaemonIsUnavailable() throws IOException {
+        VueBuildConfig config = new VueBuildConfig();
+        config.setDaemonEnabled(false);
+        ReflectionTestUtils.setField(daemon, "vueBuildConfig", config);
+        assertFalse(daemon.isAvailable());
+        assertEquals(ViteBuildDaemon.Outcome.UNAVAILABLE,
+                daemon.build(createProject("vue_project_3", true), Duration.ofSeconds(5), line -> {
+                }));
+    }
+
+    private Path createProject(String name, boolean withVite) throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(project.resolve("package.json"), "{\"name\":\"" + name + "\"}");
+        Files.createDirectories(project.resolve("src"));
+        Files.writeString(project.resolve("src/main.js"), "v1");
+        if (withVite) {
+            Path vite = Files.createDirectories(project.resolve("node_modules/vite/dist"));
+            Files.writeString(project.resolve("node_modules/vite/package.json"),
+                    "{\"name\":\"vite\",\"exports\":{\".\":{\"import\":{\"default\":\"./dist/index.js\"}}}}");
+            Files.writeString(vite.resolve("index.js"), FAKE_VITE);
+        }
+        return project;
+    }
+}
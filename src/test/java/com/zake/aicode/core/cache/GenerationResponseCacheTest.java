@@ -0,0 +1,158 @@
+package com.zake.aicode.core.cache;
+
+import com.zake.aicode.config.ResponseCacheConfig;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationResponseCacheTest {
+
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+
+    private final AtomicInteger remembered = new AtomicInteger();
+
+    private final ResponseCacheConfig config = new ResponseCacheConfig();
+
+    private GenerationResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // 用内存 Map 代替 Redis，首轮判断和补写记忆不访问 Redis
+        RMapCache<?, ?> mapCache = (RMapCache<?, ?>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RMapCache.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> store.get((String) args[0]);
+                    case "fastPutAsync" -> {
+                        store.put((String) args[0], (String) args[1]);
+                        yield null;
+                    }
+                    case "setMaxSize" -> method.getReturnType() == boolean.class ? true : null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        RedissonClient redissonClient = (RedissonClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RedissonClient.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getMapCache")) {
+                        return mapCache;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        cache = new GenerationResponseCache() {
+            @Override
+            boolean isFirstTurn(long appId) {
+                return true;
+            }
+
+            @Override
+            void rememberTurn(long appId, CodeGenTypeEnum codeGenType, String userMessage, String response) {
+                remembered.incrementAndGet();
+            }
+        };
+        config.setEnabled(true);
+        config.setMaxResponseChars(10);
+        config.setReplayChunkChars(2);
+        ReflectionTestUtils.setField(cache, "responseCacheConfig", config);
+        ReflectionTestUtils.setField(cache, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void savedResponseIsCachedAndReplayed() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> first = cache.withCache(1L, CodeGenTypeEnum.HTML, "博客",
+                () -> model(calls, "abc", "de"), saver(true)).collectList().block();
+        assertEquals(List.of("abc", "de"), first);
+        assertEquals(1, calls.get());
+        assertEquals(1, store.size());
+
+        // 相同提示词直接回放，不再调用模型，并补写对话记忆
+        List<String> replayed = cache.withCache(2L, CodeGenTypeEnum.HTML, "博客",
+                () -> model(calls, "xyz"), saver(true)).collectList().block();
+        assertNotNull(replayed);
+        assertEquals("abcde", String.join("", replayed));
+        assertEquals(List.of("ab", "cd", "e"), replayed);
+        assertEquals(1, calls.get());
+        assertEquals(1, remembered.get());
+    }
+
+    @Test
+    void unsavedResponseIsNotCached() {
+        // 拒答或没有可用代码时保存失败，不能回放给其他用户
+        cache.withCache(1L, CodeGenTypeEnum.HTML, "博客",
+                () -> Flux.just("抱歉，无法生成"), saver(false)).blockLast();
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void oversizedResponseIsNotCached() {
+        List<String> result = cache.withCache(1L, CodeGenTypeEnum.HTML, "博客",
+                () -> Flux.just("abcdef", "ghijkl"), saver(true)).collectList().block();
+        // 超长结果照常返回，只是不写入缓存
+        assertEquals(List.of("abcdef", "ghijkl"), result);
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void unsupportedTypeBypassesCache() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.withCache(1L, CodeGenTypeEnum.VUE_PROJECT, "博客", () -> model(calls, "abc"), saver(true)).blockLast();
+        cache.withCache(1L, CodeGenTypeEnum.VUE_PROJECT, "博客", () -> model(calls, "abc"), saver(true)).blockLast();
+        assertEquals(2, calls.get());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void keyIgnoresWhitespaceDifferences() {
+        String key = GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h", "做一个  个人博客\n网站 ");
+        assertEquals(key, GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h", " 做一个 个人博客 网站"));
+        // 全角字符按兼容规范化处理
+        assertEquals(GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h", "ＡＢＣ"),
+                GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h", "ABC"));
+    }
+
+    @Test
+    void keyDependsOnTypeAndSystemPrompt() {
+        String key = GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h", "博客");
+        assertNotEquals(key, GenerationResponseCache.buildKey(CodeGenTypeEnum.MULTI_FILE, "h", "博客"));
+        assertNotEquals(key, GenerationResponseCache.buildKey(CodeGenTypeEnum.HTML, "h2", "博客"));
+    }
+
+    @Test
+    void splitChunksKeepsSurrogatePairsTogether() {
+        String text = "ab😀cd";
+        List<String> chunks = GenerationResponseCache.splitChunks(text, 3);
+        assertEquals(List.of("ab😀", "cd"), chunks);
+        assertEquals(text, String.join("", chunks));
+    }
+
+    private static Flux<String> model(AtomicInteger calls, String... chunks) {
+        return Flux.defer(() -> {
+            calls.incrementAndGet();
+            return Flux.just(chunks);
+        });
+    }
+
+    /**
+     * 模拟流式保存：完成时按保存结果决定是否回调
+     */
+    private static BiFunction<Flux<String>, Runnable, Flux<String>> saver(boolean saved) {
+        return (stream, onSaved) -> stream.doOnComplete(() -> {
+            if (saved) {
+                onSaved.run();
+            }
+        });
+    }
+}
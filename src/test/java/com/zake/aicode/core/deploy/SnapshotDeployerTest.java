@@ -0,0 +1,48 @@
+package com.zake.aicode.core.deploy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDeployerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void redeployOnlyWritesChangedFiles() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("source"));
+        Files.writeString(source.resolve("index.html"), "<html>v1</html>");
+        Files.createDirectories(source.resolve("assets"));
+        Files.writeString(source.resolve("assets/app.js"), "console.log(1)");
+        Files.writeString(source.resolve("assets/style.css"), "body {}");
+        Path deployRoot = tempDir.resolve("deploy");
+        SnapshotDeployer deployer = new SnapshotDeployer(deployRoot, tempDir.resolve("snapshot"));
+
+        SnapshotDeployer.DeployResult first = deployer.deploy(source.toFile(), "abc123");
+        assertEquals(0, first.linkedFiles());
+        assertEquals(3, first.writtenFiles());
+        Path link = deployRoot.resolve("abc123");
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("<html>v1</html>", Files.readString(link.resolve("index.html")));
+
+        Files.writeString(source.resolve("index.html"), "<html>v2</html>");
+        SnapshotDeployer.DeployResult second = deployer.deploy(source.toFile(), "abc123");
+        assertEquals(2, second.linkedFiles());
+        assertEquals(1, second.writtenFiles());
+        assertEquals("<html>v2</html>", Files.readString(link.resolve("index.html")));
+        assertTrue(Files.isSameFile(first.snapshot().resolve("assets/app.js"), second.snapshot().resolve("assets/app.js")));
+        assertEquals("<html>v1</html>", Files.readString(first.snapshot().resolve("index.html")));
+
+        // 只保留当前和上一个快照
+        SnapshotDeployer.DeployResult third = deployer.deploy(source.toFile(), "abc123");
+        assertEquals(3, third.linkedFiles());
+        assertFalse(Files.exists(first.snapshot()));
+        assertTrue(Files.exists(second.snapshot()));
+    }
+}
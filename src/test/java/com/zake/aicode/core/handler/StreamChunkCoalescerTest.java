@@ -0,0 +1,35 @@
+package com.zake.aicode.core.handler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+class StreamChunkCoalescerTest {
+
+    @Test
+    void coalesceBySize() {
+        Flux<String> source = Flux.just("a", "b", "c", "d", "e");
+        List<String> result = StreamChunkCoalescer.coalesce(source, 2, Duration.ofSeconds(10))
+                .collectList().block();
+        // 第一个片段直接下发，之后每满 2 个字符下发一次，结束时下发剩余内容
+        Assertions.assertEquals(List.of("a", "bc", "de"), result);
+    }
+
+    @Test
+    void coalesceByTime() {
+        Flux<String> source = Flux.just("a", "b", "c")
+                .concatWith(Flux.just("d").delayElements(Duration.ofMillis(200)));
+        List<String> result = StreamChunkCoalescer.coalesce(source, 1024, Duration.ofMillis(20))
+                .collectList().block();
+        Assertions.assertEquals(List.of("a", "bc", "d"), result);
+    }
+
+    @Test
+    void disabledWhenDelayIsZero() {
+        Flux<String> source = Flux.just("a", "b");
+        Assertions.assertSame(source, StreamChunkCoalescer.coalesce(source, 1024, Duration.ZERO));
+    }
+}
@@ -0,0 +1,61 @@
+package com.zake.aicode.core.parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class StreamingCodeParserTest {
+
+    @Test
+    void parseFencesAcrossChunks() {
+        RecordingHandler handler = new RecordingHandler();
+        StreamingCodeParser parser = new StreamingCodeParser(handler);
+        String[] chunks = {"说明文字 `a` ``", "`ht", "ml\n<div>", "</div>\n`", "`", "`\n```CSS\nbody{}\n``", "`"};
+        for (String chunk : chunks) {
+            parser.append(chunk);
+        }
+        parser.finish();
+        Assertions.assertEquals(List.of("html:<div></div>\n", "css:body{}\n"), handler.blocks);
+        Assertions.assertEquals("说明文字 `a` \n", handler.text.toString());
+    }
+
+    @Test
+    void closeUnfinishedBlockOnFinish() {
+        RecordingHandler handler = new RecordingHandler();
+        StreamingCodeParser parser = new StreamingCodeParser(handler);
+        parser.append("```js\nconsole.log(1)``");
+        parser.finish();
+        Assertions.assertEquals(List.of("js:console.log(1)``"), handler.blocks);
+    }
+
+    private static class RecordingHandler implements CodeBlockHandler {
+
+        private final List<String> blocks = new ArrayList<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private StringBuilder current;
+
+        @Override
+        public void onText(CharSequence text) {
+            this.text.append(text);
+        }
+
+        @Override
+        public void onBlockStart(String language) {
+            current = new StringBuilder(language).append(':');
+        }
+
+        @Override
+        public void onBlockContent(CharSequence content) {
+            current.append(content);
+        }
+
+        @Override
+        public void onBlockEnd() {
+            blocks.add(current.toString());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.zake.aicode.core.resource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticResourcesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void precompressedVariantIsUsedUntilSourceChanges() throws IOException {
+        Path file = tempDir.resolve("index.html");
+        String html = "<html><body>" + "<p>hello</p>".repeat(200) + "</body></html>";
+        Files.writeString(file, html);
+
+        StaticResources.precompress(file);
+        Path gzipFile = tempDir.resolve("index.html.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzipFile))) {
+            assertEquals(html, new String(in.readAllBytes()));
+        }
+
+        StaticResources.FileMeta meta = StaticResources.lookup(file).orElseThrow();
+        assertEquals("text/html; charset=UTF-8", meta.contentType());
+        assertNotNull(meta.gzip());
+        assertSame(meta.gzip(), StaticResources.selectVariant(meta, "gzip, deflate, br"));
+        assertNull(StaticResources.selectVariant(meta, "gzip;q=0, deflate"));
+        assertTrue(StaticResources.matchesEtag(meta.etag(), meta));
+        String gzipEtag = meta.etag().substring(0, meta.etag().length() - 1) + "-gz\"";
+        assertTrue(StaticResources.matchesEtag("W/" + gzipEtag, meta));
+
+        // 源文件更新后旧的压缩版本不再使用
+        Files.writeString(file, html + "<!-- changed -->");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(
+                Files.getLastModifiedTime(gzipFile).toMillis() + 2000));
+        StaticResources.invalidate(tempDir);
+        StaticResources.FileMeta updated = StaticResources.lookup(file).orElseThrow();
+        assertNull(updated.gzip());
+        assertNotEquals(meta.etag(), updated.etag());
+        assertFalse(StaticResources.matchesEtag(meta.etag(), updated));
+    }
+
+    @Test
+    void smallAndBinaryFilesAreNotPrecompressed() throws IOException {
+        Path small = Files.writeString(tempDir.resolve("app.js"), "console.log(1)");
+        Path image = Files.write(tempDir.resolve("logo.png"), new byte[4096]);
+        StaticResources.precompress(small);
+        StaticResources.precompress(image);
+        assertFalse(Files.exists(tempDir.resolve("app.js.gz")));
+        assertFalse(Files.exists(tempDir.resolve("logo.png.gz")));
+        assertTrue(StaticResources.lookup(tempDir.resolve("missing.js")).isEmpty());
+    }
+
+    @Test
+    void mimeTypesAndHashedAssets() {
+        assertEquals("image/svg+xml; charset=UTF-8", MimeTypes.getContentType("icon.SVG"));
+        assertEquals("font/woff2", MimeTypes.getContentType("font.woff2"));
+        assertEquals("application/wasm", MimeTypes.getContentType("module.wasm"));
+        assertEquals("application/json; charset=UTF-8", MimeTypes.getContentType("manifest.json"));
+        assertEquals("application/octet-stream", MimeTypes.getContentType("LICENSE"));
+        assertTrue(StaticResources.isHashedAsset("/dist/assets/index-BQ3fX1a9.js"));
+        assertFalse(StaticResources.isHashedAsset("/dist/index.html"));
+        assertFalse(StaticResources.isHashedAsset("/dist/assets/logo.png"));
+        assertTrue(StaticResources.isHashedAsset("/dist/assets/index-BQ3-X1a9.css"));
+        // 非 Vite 输出目录、或后缀只是普通单词的文件不长期缓存
+        assertFalse(StaticResources.isHashedAsset("/assets/hero-background.png"));
+        assertFalse(StaticResources.isHashedAsset("/assets/index-BQ3fX1a9.js"));
+        assertFalse(StaticResources.isHashedAsset("/dist/assets/my-pictures.png"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.zake.aicode.core.saver;
+
+import com.zake.aicode.exception.BusinessException;
+import com.zake.aicode.model.enums.CodeGenTypeEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCodeFileSaverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void blockIsWrittenToPartFileThenMovedIntoPlace() throws IOException {
+        StreamingCodeFileSaver saver = new StreamingCodeFileSaver(CodeGenTypeEnum.HTML, 1L, tempDir);
+        Path dir = tempDir.resolve("html_1");
+
+        saver.onBlockStart("html");
+        saver.onBlockContent("\n  <html>");
+        // 代码块未闭合前只有临时文件，预览读不到写了一半的 index.html
+        assertTrue(Files.exists(dir.resolve("index.html.part")));
+        assertFalse(Files.exists(dir.resolve("index.html")));
+
+        saver.onBlockContent(" </html>\n\n");
+        saver.onBlockEnd();
+        // 首尾空白去除，中间空白保留
+        assertEquals("<html> </html>", Files.readString(dir.resolve("index.html")));
+        assertFalse(Files.exists(dir.resolve("index.html.part")));
+        assertEquals(dir.toFile(), saver.finish());
+    }
+
+    @Test
+    void onlyFirstBlockPerLanguageIsKept() throws IOException {
+        StreamingCodeFileSaver saver = new StreamingCodeFileSaver(CodeGenTypeEnum.MULTI_FILE, 2L, tempDir);
+        block(saver, "html", "<p>first</p>");
+        block(saver, "css", "p{}");
+        block(saver, "html", "<p>second</p>");
+        block(saver, "javascript", "run()");
+        block(saver, "js", "other()");
+        block(saver, "python", "print()");
+        saver.finish();
+
+        Path dir = tempDir.resolve("multi_file_2");
+        assertEquals("<p>first</p>", Files.readString(dir.resolve("index.html")));
+        assertEquals("p{}", Files.readString(dir.resolve("style.css")));
+        assertEquals("run()", Files.readString(dir.resolve("script.js")));
+        try (var files = Files.list(dir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void unfencedHtmlIsSavedAsFallback() throws IOException {
+        StreamingCodeFileSaver saver = new StreamingCodeFileSaver(CodeGenTypeEnum.HTML, 3L, tempDir);
+        saver.onText("  <html><body>hi</body>");
+        saver.onText("</html>\n");
+        File saved = saver.finish();
+        assertEquals("<html><body>hi</body></html>", Files.readString(saved.toPath().resolve("index.html")));
+    }
+
+    @Test
+    void finishFailsWithoutHtml() {
+        StreamingCodeFileSaver multiFile = new StreamingCodeFileSaver(CodeGenTypeEnum.MULTI_FILE, 4L, tempDir);
+        block(multiFile, "css", "p{}");
+        // 多文件模式下代码块之外的文本不作为 HTML
+        multiFile.onText("<html></html>");
+        assertThrows(BusinessException.class, multiFile::finish);
+
+        StreamingCodeFileSaver html = new StreamingCodeFileSaver(CodeGenTypeEnum.HTML, 5L, tempDir);
+        html.onText("  \n");
+        block(html, "html", "   ");
+        assertThrows(BusinessException.class, html::finish);
+        assertFalse(Files.exists(tempDir.resolve("html_5/index.html")));
+    }
+
+    @Test
+    void abortRemovesPartialFileAndKeepsPreviousVersion() throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("html_6"));
+        Files.writeString(dir.resolve("index.html"), "old");
+        StreamingCodeFileSaver saver = new StreamingCodeFileSaver(CodeGenTypeEnum.HTML, 6L, tempDir);
+
+        saver.onBlockStart("html");
+        saver.onBlockContent("<html>half");
+        saver.abort();
+        // 取消后的收尾事件不再写入
+        saver.onBlockContent("rest");
+        saver.onBlockEnd();
+
+        assertFalse(Files.exists(dir.resolve("index.html.part")));
+        assertEquals("old", Files.readString(dir.resolve("index.html")));
+    }
+
+    private static void block(StreamingCodeFileSaver saver, String language, String content) {
+        saver.onBlockStart(language);
+        saver.onBlockContent(content);
+        saver.onBlockEnd();
+    }
+}
@@ -0,0 +1,80 @@
+package com.zake.aicode.core.session;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSessionTest {
+
+    @Test
+    void attachReplaysEventsAfterLastEventId() {
+        GenerationSession session = new GenerationSession(1L, 1L, 16);
+        AtomicBoolean terminated = new AtomicBoolean(false);
+        session.start(Flux.just("a", "b", "c"), () -> terminated.set(true));
+
+        List<ServerSentEvent<String>> events = session.attach(2).collectList().block();
+        assertNotNull(events);
+        assertEquals(2, events.size());
+        assertEquals("3", events.get(0).id());
+        assertEquals("{\"d\":\"c\"}", events.get(0).data());
+        assertEquals("done", events.get(1).event());
+        assertTrue(terminated.get());
+        assertTrue(session.isCompleted());
+    }
+
+    @Test
+    void generationContinuesWhenSubscriberCancels() {
+        Sinks.Many<String> source = Sinks.many().unicast().onBackpressureBuffer();
+        GenerationSession session = new GenerationSession(1L, 1L, 16);
+        session.start(source.asFlux(), () -> {
+        });
+
+        source.tryEmitNext("w");
+        // 第一个订阅者只取一个事件后断开
+        ServerSentEvent<String> first = session.attach(0).blockFirst();
+        assertNotNull(first);
+        source.tryEmitNext("x");
+        source.tryEmitNext("y");
+        source.tryEmitComplete();
+
+        // 重连后从断点继续
+        List<ServerSentEvent<String>> rest = session.attach(1).collectList().block();
+        assertNotNull(rest);
+        assertEquals(List.of("2", "3", "4"), rest.stream().map(ServerSentEvent::id).toList());
+    }
+
+    @Test
+    void attachFromStartAfterEvictionEndsWithError() {
+        GenerationSession session = new GenerationSession(1L, 1L, 2);
+        session.start(Flux.just("a", "b", "c"), () -> {
+        });
+
+        // 缓冲区只剩 3、4，从头订阅（恢复接口、第二个标签页）不能从中途开始
+        List<ServerSentEvent<String>> events = session.attach(0).collectList().block();
+        assertNotNull(events);
+        assertEquals(List.of("business-error", "done"), events.stream().map(ServerSentEvent::event).toList());
+    }
+
+    @Test
+    void reconnectBeyondBufferEndsWithError() {
+        GenerationSession session = new GenerationSession(1L, 1L, 2);
+        session.start(Flux.just("a", "b", "c"), () -> {
+        });
+
+        // 事件 2 已被挤出缓冲区（只剩 3、4）
+        List<ServerSentEvent<String>> events = session.attach(1).collectList().block();
+        assertNotNull(events);
+        assertEquals(List.of("business-error", "done"), events.stream().map(ServerSentEvent::event).toList());
+
+        // 紧接缓冲区开头时正常续接
+        List<ServerSentEvent<String>> resumed = session.attach(2).collectList().block();
+        assertNotNull(resumed);
+        assertEquals(List.of("3", "4"), resumed.stream().map(ServerSentEvent::id).toList());
+    }
+}
@@ -0,0 +1,253 @@
+package com.zake.aicode.loadtest;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 代码生成链路压测
+ * 使用 {@link MockOpenAiServer} 代替真实模型，启动完整应用（需要本地 MySQL 和 Redis），
+ * 并发发起 N 个 SSE 生成请求，统计首 token 时延 p50/p99、吞吐，以及每个请求产生的数据库语句数和 Redis 命令数。
+ * 默认不执行，运行方式：
+ * mvn test -Dtest=GenerationLoadTest -Dloadtest.enabled=true -Dloadtest.concurrency=50 -Dmock.tokens-per-second=80
+ * 数据库语句数取自 MySQL 全局 Questions、Redis 命令数取自 INFO stats，压测期间请勿有其他流量。
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest.enabled", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GenerationLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 20);
+
+    private static final String PROMPT = System.getProperty("loadtest.prompt", "做一个个人博客首页");
+
+    private static final String PASSWORD = "loadtest1234";
+
+    private static MockOpenAiServer mockServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @DynamicPropertySource
+    static void mockModelProperties(DynamicPropertyRegistry registry) throws IOException {
+        mockServer = new MockOpenAiServer(new MockOpenAiServer.Options()).start();
+        for (String model : List.of("chat-model", "streaming-chat-model", "reasoning-streaming-chat-model",
+                "routing-chat-model")) {
+            String prefix = "langchain4j.open-ai." + model;
+            registry.add(prefix + ".base-url", mockServer::getBaseUrl);
+            registry.add(prefix + ".api-key", () -> "mock-key");
+            registry.add(prefix + ".model-name", () -> "mock-" + model);
+        }
+    }
+
+    @AfterAll
+    static void stopMockServer() {
+        if (mockServer != null) {
+            mockServer.close();
+        }
+    }
+
+    @Test
+    void concurrentGenerations() throws Exception {
+        String baseUrl = "http://127.0.0.1:" + port + "/api";
+        // 准备：每个虚拟用户单独注册（生成接口按用户限流），各自创建一个应用
+        String runId = String.valueOf(System.currentTimeMillis());
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            users.add(VirtualUser.create(baseUrl, "lt" + runId + "_" + i));
+        }
+
+        long questionsBefore = mysqlQuestions();
+        long redisCommandsBefore = redisCommands();
+        long tokensBefore = mockServer.getEmittedTokens();
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (VirtualUser user : users) {
+                futures.add(executor.submit(() -> user.generate(PROMPT)));
+            }
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+        long questions = mysqlQuestions() - questionsBefore;
+        long redisCommands = redisCommands() - redisCommandsBefore;
+        long tokens = mockServer.getEmittedTokens() - tokensBefore;
+
+        report(results, wallSeconds, tokens, questions, redisCommands);
+        long failed = results.stream().filter(result -> !result.completed).count();
+        assertEquals(0, failed, "存在未正常结束的生成请求");
+    }
+
+    private void report(List<Result> results, double wallSeconds, long tokens, long questions, long redisCommands) {
+        List<Long> ttft = new ArrayList<>(results.stream().map(result -> result.firstTokenMillis).toList());
+        Collections.sort(ttft);
+        double avgCharsPerSecond = results.stream()
+                .mapToDouble(result -> result.chars / Math.max(0.001, result.totalMillis / 1000.0))
+                .average().orElse(0);
+        int n = results.size();
+        log.info("========== 压测结果 ==========");
+        log.info("并发请求数: {}, 总耗时: {} s", n, String.format("%.2f", wallSeconds));
+        log.info("首 token 时延 p50: {} ms, p99: {} ms, max: {} ms",
+                percentile(ttft, 50), percentile(ttft, 99), ttft.get(n - 1));
+        log.info("模型 token 吞吐: {} tokens/s（合计 {} tokens）",
+                String.format("%.1f", tokens / wallSeconds), tokens);
+        log.info("单流平均下发速率: {} chars/s, 平均 SSE 帧数: {}",
+                String.format("%.1f", avgCharsPerSecond),
+                results.stream().mapToInt(result -> result.frames).average().orElse(0));
+        log.info("每请求数据库语句数: {}, 每请求 Redis 命令数: {}",
+                String.format("%.1f", (double) questions / n), String.format("%.1f", (double) redisCommands / n));
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private long mysqlQuestions() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Questions'")) {
+            return resultSet.next() ? resultSet.getLong(2) : 0;
+        }
+    }
+
+    private long redisCommands() {
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            Properties stats = connection.serverCommands().info("stats");
+            return stats == null ? 0 : Long.parseLong(stats.getProperty("total_commands_processed", "0"));
+        }
+    }
+
+    /**
+     * 单次生成的统计结果
+     */
+    private record Result(boolean completed, long firstTokenMillis, long totalMillis, long chars, int frames) {
+    }
+
+    /**
+     * 虚拟用户：独立的 Cookie（会话）和应用
+     */
+    private record VirtualUser(HttpClient client, String baseUrl, long appId) {
+
+        static VirtualUser create(String baseUrl, String account) throws Exception {
+            HttpClient client = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            postJson(client, baseUrl + "/user/register", JSONUtil.createObj()
+                    .set("userAccount", account)
+                    .set("userPassword", PASSWORD)
+                    .set("checkPassword", PASSWORD));
+            postJson(client, baseUrl + "/user/login", JSONUtil.createObj()
+                    .set("userAccount", account)
+                    .set("userPassword", PASSWORD));
+            JSONObject created = postJson(client, baseUrl + "/app/add", JSONUtil.createObj()
+                    .set("initPrompt", PROMPT));
+            return new VirtualUser(client, baseUrl, created.getLong("data"));
+        }
+
+        Result generate(String message) throws Exception {
+            URI uri = URI.create(baseUrl + "/app/chat/gen/code?appId=" + appId
+                    + "&message=" + URLEncoder.encode(message, StandardCharsets.UTF_8));
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            long firstToken = -1;
+            long chars = 0;
+            int frames = 0;
+            boolean completed = false;
+            String event = null;
+            HttpResponse<Stream<String>> response = client.send(request,
+                    HttpResponse.BodyHandlers.ofLines());
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.startsWith("event:")) {
+                        event = line.substring("event:".length()).trim();
+                    } else if (line.startsWith("data:")) {
+                        String data = line.substring("data:".length()).trim();
+                        if ("done".equals(event)) {
+                            completed = true;
+                            break;
+                        }
+                        if ("business-error".equals(event)) {
+                            log.warn("应用 {} 生成失败: {}", appId, data);
+                            break;
+                        }
+                        String chunk = JSONUtil.parseObj(data).getStr("d");
+                        if (StrUtil.isNotEmpty(chunk)) {
+                            if (firstToken < 0) {
+                                firstToken = System.nanoTime();
+                            }
+                            chars += chunk.length();
+                            frames++;
+                        }
+                    } else if (line.isEmpty()) {
+                        event = null;
+                    }
+                }
+            }
+            long end = System.nanoTime();
+            long firstTokenMillis = firstToken < 0 ? (end - start) / 1_000_000 : (firstToken - start) / 1_000_000;
+            return new Result(completed, firstTokenMillis, (end - start) / 1_000_000, chars, frames);
+        }
+
+        private static JSONObject postJson(HttpClient client, String url, JSONObject body) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            String response = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            // 注册接口直接返回 ID，其余接口返回 BaseResponse
+            return JSONUtil.isTypeJSONObject(response) ? JSONUtil.parseObj(response) : JSONUtil.createObj();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.zake.aicode.loadtest;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 OpenAI 兼容的模拟服务（只实现 /v1/chat/completions）
+ * 用于压测生成链路，不产生真实模型调用费用：
+ * - 非流式请求（路由模型）：直接返回配置的代码生成类型
+ * - 流式请求：按配置的首 token 延迟和 token 速率推送 HTML 代码
+ * - 带工具的流式请求（Vue 项目）：第一轮按脚本推送 writeFile 工具调用，收到工具结果后再推送总结文本
+ */
+@Slf4j
+public class MockOpenAiServer implements AutoCloseable {
+
+    private static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+    /**
+     * 每个 token 的字符数
+     */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final Options options;
+
+    private final HttpServer server;
+
+    /**
+     * 已推送的 token 总数（用于计算吞吐）
+     */
+    private final AtomicLong emittedTokens = new AtomicLong();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public MockOpenAiServer(Options options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext(COMPLETIONS_PATH, this::handle);
+    }
+
+    public MockOpenAiServer start() {
+        server.start();
+        log.info("模拟 OpenAI 服务已启动: {}", getBaseUrl());
+        return this;
+    }
+
+    /**
+     * 模型配置中使用的 base-url
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public long getEmittedTokens() {
+        return emittedTokens.get();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            JSONObject request = JSONUtil.parseObj(new String(exchange.getRequestBody().readAllBytes(),
+                    StandardCharsets.UTF_8));
+            String model = request.getStr("model", "mock");
+            if (!request.getBool("stream", false)) {
+                writeJson(exchange, completion(model, options.routingAnswer));
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            sleep(options.firstTokenLatencyMs);
+            boolean hasTools = request.containsKey("tools");
+            if (hasTools && !hasToolResult(request)) {
+                streamToolCalls(out, model);
+            } else {
+                streamContent(out, model, hasTools ? summaryText() : htmlText());
+            }
+            writeEvent(out, "[DONE]");
+        } catch (IOException e) {
+            // 客户端断开
+            log.debug("模拟请求中断: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasToolResult(JSONObject request) {
+        JSONArray messages = request.getJSONArray("messages");
+        if (messages == null || messages.isEmpty()) {
+            return false;
+        }
+        JSONObject last = messages.getJSONObject(messages.size() - 1);
+        return "tool".equals(last.getStr("role"));
+    }
+
+    private void streamContent(OutputStream out, String model, String text) throws IOException {
+        String id = "chatcmpl-" + UUID.randomUUID();
+        long tokens = 0;
+        for (int i = 0; i < text.length(); i += CHARS_PER_TOKEN) {
+            String token = text.substring(i, Math.min(text.length(), i + CHARS_PER_TOKEN));
+            writeEvent(out, chunk(id, model, new JSONObject().set("content", token), null).toString());
+            tokens++;
+            emittedTokens.incrementAndGet();
+            pace();
+        }
+        writeEvent(out, chunk(id, model, new JSONObject(), "stop").toString());
+        writeEvent(out, usageChunk(id, model, tokens).toString());
+    }
+
+    private void streamToolCalls(OutputStream out, String model) throws IOException {
+        String id = "chatcmpl-" + UUID.randomUUID();
+        long tokens = 0;
+        List<Map.Entry<String, String>> files = vueFiles();
+        for (int index = 0; index < files.size(); index++) {
+            Map.Entry<String, String> file = files.get(index);
+            String arguments = JSONUtil.toJsonStr(Map.of("relativeFilePath", file.getKey(),
+                    "content", file.getValue()));
+            // 第一片带上 id 和工具名，后续只追加参数
+            for (int i = 0; i < arguments.length(); i += CHARS_PER_TOKEN) {
+                JSONObject function = new JSONObject()
+                        .set("arguments", arguments.substring(i, Math.min(arguments.length(), i + CHARS_PER_TOKEN)));
+                JSONObject toolCall = new JSONObject().set("index", index).set("function", function);
+                if (i == 0) {
+                    toolCall.set("id", "call_" + index).set("type", "function");
+                    function.set("name", "writeFile");
+                }
+                writeEvent(out, chunk(id, model, new JSONObject().set("tool_calls", JSONUtil.createArray().set(toolCall)),
+                        null).toString());
+                tokens++;
+                emittedTokens.incrementAndGet();
+                pace();
+            }
+        }
+        writeEvent(out, chunk(id, model, new JSONObject(), "tool_calls").toString());
+        writeEvent(out, usageChunk(id, model, tokens).toString());
+    }
+
+    private JSONObject chunk(String id, String model, JSONObject delta, String finishReason) {
+        JSONObject choice = new JSONObject().set("index", 0).set("delta", delta).set("finish_reason", finishReason);
+        return new JSONObject()
+                .set("id", id)
+                .set("object", "chat.completion.chunk")
+                .set("created", System.currentTimeMillis() / 1000)
+                .set("model", model)
+                .set("choices", JSONUtil.createArray().set(choice));
+    }
+
+    private JSONObject usageChunk(String id, String model, long completionTokens) {
+        return new JSONObject()
+                .set("id", id)
+                .set("object", "chat.completion.chunk")
+                .set("created", System.currentTimeMillis() / 1000)
+                .set("model", model)
+                .set("choices", JSONUtil.createArray())
+                .set("usage", usage(completionTokens));
+    }
+
+    private JSONObject completion(String model, String content) {
+        JSONObject message = new JSONObject().set("role", "assistant").set("content", content);
+        JSONObject choice = new JSONObject().set("index", 0).set("message", message).set("finish_reason", "stop");
+        return new JSONObject()
+                .set("id", "chatcmpl-" + UUID.randomUUID())
+                .set("object", "chat.completion")
+                .set("created", System.currentTimeMillis() / 1000)
+                .set("model", model)
+                .set("choices", JSONUtil.createArray().set(choice))
+                .set("usage", usage(1));
+    }
+
+    private JSONObject usage(long completionTokens) {
+        return new JSONObject()
+                .set("prompt_tokens", 100)
+                .set("completion_tokens", completionTokens)
+                .set("total_tokens", 100 + completionTokens);
+    }
+
+    private String htmlText() {
+        StringBuilder body = new StringBuilder();
+        int lines = Math.max(1, options.responseTokens * CHARS_PER_TOKEN / 40);
+        for (int i = 0; i < lines; i++) {
+            body.append("    <p class=\"item\">段落 ").append(i).append(" 的内容</p>\n");
+        }
+        return "这是为你生成的页面：\n\n```html\n<!DOCTYPE html>\n<html>\n<head>\n<title>Mock</title>\n</head>\n<body>\n"
+                + body + "</body>\n</html>\n```\n\n页面已生成完成。";
+    }
+
+    private String summaryText() {
+        return "项目文件已全部写入，包含入口页面、主组件和路由配置。";
+    }
+
+    private List<Map.Entry<String, String>> vueFiles() {
+        List<Map.Entry<String, String>> files = new ArrayList<>();
+        files.add(Map.entry("index.html",
+                "<!DOCTYPE html>\n<html>\n<body>\n<div id=\"app\"></div>\n<script type=\"module\" src=\"/src/main.js\"></script>\n</body>\n</html>\n"));
+        files.add(Map.entry("src/main.js",
+                "import { createApp } from 'vue'\nimport App from './App.vue'\ncreateApp(App).mount('#app')\n"));
+        files.add(Map.entry("src/App.vue",
+                "<template>\n  <h1>Mock</h1>\n</template>\n<script setup>\n</script>\n"));
+        return files;
+    }
+
+    private void writeJson(HttpExchange exchange, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void pace() {
+        if (options.tokensPerSecond > 0) {
+            sleep(TimeUnit.SECONDS.toMicros(1) / options.tokensPerSecond, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void sleep(long millis) {
+        sleep(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sleep(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            return;
+        }
+        try {
+            unit.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 模拟服务配置，默认值可以通过 mock.* 系统属性覆盖
+     */
+    public static class Options {
+
+        /**
+         * 监听端口，0 表示随机端口
+         */
+        int port = Integer.getInteger("mock.port", 0);
+
+        /**
+         * 每秒推送的 token 数，0 表示不限速
+         */
+        int tokensPerSecond = Integer.getInteger("mock.tokens-per-second", 50);
+
+        /**
+         * 首 token 延迟（毫秒）
+         */
+        long firstTokenLatencyMs = Long.getLong("mock.first-token-latency-ms", 500);
+
+        /**
+         * HTML 响应的大致 token 数
+         */
+        int responseTokens = Integer.getInteger("mock.response-tokens", 800);
+
+        /**
+         * 路由模型返回的代码生成类型
+         */
+        String routingAnswer = System.getProperty("mock.routing-answer", "HTML");
+    }
+}
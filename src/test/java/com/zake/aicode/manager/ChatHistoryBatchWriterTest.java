@@ -0,0 +1,69 @@
+package com.zake.aicode.manager;
+
+import com.zake.aicode.mapper.ChatHistoryMapper;
+import com.zake.aicode.model.entity.ChatHistory;
+import com.zake.aicode.model.enums.ChatHistoryMessageTypeEnum;
+import com.zake.aicode.service.impl.ChatHistoryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatHistoryBatchWriterTest {
+
+    private final List<ChatHistory> inserted = new CopyOnWriteArrayList<>();
+
+    private final ChatHistoryBatchWriter writer = new ChatHistoryBatchWriter();
+
+    private final ChatHistoryServiceImpl chatHistoryService = new ChatHistoryServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        // 只记录交给 mapper 的实体，不连接数据库
+        ChatHistoryMapper mapper = (ChatHistoryMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ChatHistoryMapper.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "insertBatch" -> inserted.addAll((Collection<ChatHistory>) args[0]);
+                        case "insert", "insertSelective" -> inserted.add((ChatHistory) args[0]);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                    return 1;
+                });
+        ReflectionTestUtils.setField(writer, "chatHistoryMapper", mapper);
+        ReflectionTestUtils.setField(writer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 20L);
+        writer.init();
+        ReflectionTestUtils.setField(chatHistoryService, "chatHistoryBatchWriter", writer);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void asyncMessageHasNoNullNotNullColumns() {
+        chatHistoryService.addChatMessageAsync(1L, "hello", ChatHistoryMessageTypeEnum.AI.getValue(), 2L);
+        assertTrue(writer.awaitFlushed(1L, 5000));
+        assertEquals(1, inserted.size());
+        ChatHistory chatHistory = inserted.getFirst();
+        assertNotNull(chatHistory.getCreateTime());
+        assertNotNull(chatHistory.getUpdateTime());
+        assertEquals(0, chatHistory.getIsDelete());
+    }
+
+    @Test
+    void awaitFlushedReturnsImmediatelyForIdleApp() {
+        assertTrue(writer.awaitFlushed(42L, 0));
+    }
+}
@@ -0,0 +1,37 @@
+package com.zake.aicode.service.impl;
+
+import com.zake.aicode.service.impl.ProjectDownloadServiceImpl.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectDownloadServiceImplTest {
+
+    @Test
+    void parseRange() {
+        assertEquals(new ByteRange(0, 99), ProjectDownloadServiceImpl.parseRange("bytes=0-99", 1000));
+        assertEquals(new ByteRange(500, 999), ProjectDownloadServiceImpl.parseRange("bytes=500-", 1000));
+        assertEquals(new ByteRange(900, 999), ProjectDownloadServiceImpl.parseRange("bytes=-100", 1000));
+        assertEquals(new ByteRange(0, 999), ProjectDownloadServiceImpl.parseRange("bytes=-2000", 1000));
+        assertEquals(new ByteRange(990, 999), ProjectDownloadServiceImpl.parseRange("bytes=990-2000", 1000));
+    }
+
+    @Test
+    void invalidOrUnsupportedRangeIsIgnored() {
+        // 多区间、非 bytes 单位、格式错误、起点大于终点：忽略 Range，返回完整文件（200）
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("bytes=0-1,5-6", 1000));
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("items=0-1", 1000));
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("bytes=a-b", 1000));
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("bytes=-", 1000));
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("bytes=5-1", 1000));
+        assertSame(ByteRange.IGNORED, ProjectDownloadServiceImpl.parseRange("bytes=99999999999999999999-", 1000));
+    }
+
+    @Test
+    void unsatisfiableRange() {
+        // 格式正确但无法满足：416
+        assertSame(ByteRange.UNSATISFIABLE, ProjectDownloadServiceImpl.parseRange("bytes=1000-", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ProjectDownloadServiceImpl.parseRange("bytes=1000-1200", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ProjectDownloadServiceImpl.parseRange("bytes=-0", 1000));
+    }
+}
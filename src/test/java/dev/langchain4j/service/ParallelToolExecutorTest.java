@@ -0,0 +1,116 @@
+package dev.langchain4j.service;
+
+import com.zake.aicode.ai.tools.BaseTool;
+import com.zake.aicode.ai.tools.FileDeleteTool;
+import com.zake.aicode.ai.tools.FileModifyTool;
+import com.zake.aicode.ai.tools.FileReadTool;
+import com.zake.aicode.ai.tools.FileWriteTool;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelToolExecutorTest {
+
+    private static final String ARGUMENT = BaseTool.FILE_PATH_ARGUMENT;
+
+    @Test
+    void sameFileRunsInRequestOrder() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        ToolExecutor tool = (request, memoryId) -> {
+            sleep(request.id().equals("1") ? 100 : 0);
+            order.add(request.id());
+            return "r" + request.id();
+        };
+        ParallelToolExecutor executor = executor(tool);
+
+        // 两个请求指向同一文件（路径规范化后相同），必须按顺序执行
+        List<String> results = executor.execute(List.of(
+                request("1", "src/App.vue"), request("2", "src/../src/App.vue")), 1L);
+        assertEquals(List.of("1", "2"), order);
+        assertEquals(List.of("r1", "r2"), results);
+    }
+
+    @Test
+    void differentFilesRunConcurrently() {
+        // 只有两个请求同时执行时才能都通过栅栏
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ToolExecutor tool = (request, memoryId) -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("未并行执行", e);
+            }
+            sleep(request.id().equals("1") ? 100 : 0);
+            return "r" + request.id();
+        };
+        List<String> results = executor(tool).execute(List.of(
+                request("1", "src/App.vue"), request("2", "src/main.js")), 1L);
+        // 先开始的请求后完成，结果仍按请求顺序返回
+        assertEquals(List.of("r1", "r2"), results);
+    }
+
+    @Test
+    void requestWithoutFileRunsSequentially() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ToolExecutor tool = (request, memoryId) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(50);
+            running.decrementAndGet();
+            return "r" + request.id();
+        };
+        List<String> results = executor(tool).execute(List.of(
+                request("1", "src/App.vue"),
+                ToolExecutionRequest.builder().id("2").name("tool").arguments("{\"relativeDirPath\":\"src\"}").build(),
+                request("3", "src/main.js")), 1L);
+        assertEquals(1, maxRunning.get());
+        assertEquals(List.of("r1", "r2", "r3"), results);
+    }
+
+    @Test
+    void fileToolsDeclareThePathArgument() {
+        // 参数名与常量不一致时会静默退化为串行执行
+        for (Class<?> toolClass : List.of(FileWriteTool.class, FileReadTool.class, FileModifyTool.class,
+                FileDeleteTool.class)) {
+            Method toolMethod = Arrays.stream(toolClass.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Tool.class))
+                    .findFirst()
+                    .orElseThrow();
+            assertTrue(Arrays.stream(toolMethod.getParameters()).map(Parameter::getName).anyMatch(ARGUMENT::equals),
+                    toolClass.getSimpleName() + " 缺少参数 " + ARGUMENT);
+        }
+    }
+
+    private static ParallelToolExecutor executor(ToolExecutor tool) {
+        return new ParallelToolExecutor(Map.of("tool", tool), ParallelToolExecutor.pathArgument(ARGUMENT));
+    }
+
+    private static ToolExecutionRequest request(String id, String path) {
+        return ToolExecutionRequest.builder()
+                .id(id)
+                .name("tool")
+                .arguments("{\"" + ARGUMENT + "\":\"" + path + "\"}")
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}